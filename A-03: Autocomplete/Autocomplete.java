@@ -1,3 +1,8 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 
 
@@ -7,6 +12,12 @@ import java.util.Arrays;
 public class Autocomplete {
 
    private Term[] terms;
+   
+   // Segment tree over the weights of terms.
+   private HeaviestTree heaviest;
+   
+   // How long it took to sort the terms and build the segment tree.
+   private long buildNanos;
 
 	/**
 	 * Initializes a data structure from the given array of terms.
@@ -17,11 +28,97 @@ public class Autocomplete {
          throw new NullPointerException();
       }
       
-      terms = Arrays.copyOf(terms, terms.length);
+      long start = System.nanoTime();
+      this.terms = Arrays.copyOf(terms, terms.length);
+      build(start);
+   }
+   
+   /**
+    * Initializes a data structure that takes over the first count entries of
+    * the given array, which nothing else refers to. The array is only copied
+    * if it has room to spare.
+    */
+   private Autocomplete(Term[] terms, int count, long start) {
+      this.terms = (count == terms.length) ? terms : Arrays.copyOf(terms, count);
+      build(start);
+   }
+   
+   /**
+    * Reads the terms in the named file and initializes a data structure from
+    * them. Each line holds a weight, a tab and a query, and may start with
+    * spaces; lines without a tab, such as a leading count of terms, are
+    * skipped. The terms are read into an array that grows by half as it
+    * fills, and that array is trimmed to size once and sorted in place. This
+    * method throws an IOException if the file can't be read or a weight is
+    * not a non-negative number.
+    */
+   public static Autocomplete load(String fileName) throws IOException {
+      long start = System.nanoTime();
+      Term[] terms = new Term[1024];
+      int count = 0;
       
-      Arrays.sort(terms);
+      try (BufferedReader in = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+         int lineNumber = 0;
+         for (String line = in.readLine(); line != null; line = in.readLine()) {
+            lineNumber++;
+            int tab = line.indexOf('\t');
+            if (tab == -1) {
+               continue;
+            }
+            try {
+               long weight = Long.parseLong(line.substring(0, tab).trim());
+               Term term = new Term(line.substring(tab + 1), weight);
+               if (count == terms.length) {
+                  terms = Arrays.copyOf(terms, count + (count >> 1));
+               }
+               terms[count++] = term;
+            }
+            catch (IllegalArgumentException e) {
+               throw new IOException("Bad weight on line " + lineNumber + " of " + fileName);
+            }
+         }
+      }
+      return new Autocomplete(terms, count, start);
    }
-
+   
+   /**
+    * Sorts the terms unless they are in order already, builds the segment
+    * tree, and records how long that took since start.
+    */
+   private void build(long start) {
+      //Query logs are often written out in order, and checking takes one pass.
+      if (!isSorted(terms)) {
+         Arrays.parallelSort(terms);
+      }
+      
+      long[] weights = new long[terms.length];
+      for (int i = 0; i < terms.length; i++) {
+         weights[i] = terms[i].getWeight();
+      }
+      heaviest = new HeaviestTree(weights);
+      buildNanos = System.nanoTime() - start;
+   }
+   
+   /**
+    * Returns true if the terms are in ascending lexicographic order of query.
+    */
+   private static boolean isSorted(Term[] terms) {
+      for (int i = 1; i < terms.length; i++) {
+         if (terms[i - 1].compareTo(terms[i]) > 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * Returns how many milliseconds it took to build this data structure,
+    * including reading the file for load.
+    */
+   public long getBuildTimeMillis() {
+      return buildNanos / 1_000_000;
+   }
+   
 	/** 
 	 * Returns all terms that start with the given prefix, in descending order of weight. 
 	 * This method throws a NullPointerException if prefix is null.
@@ -36,18 +133,14 @@ public class Autocomplete {
       
       
       // Creating the range of spots in arrays.
-      int firstIndex = BinarySearch.firstIndexOf(terms, termOfPrefix, Term.byPrefixOrder(prefix.length())); 
+      int[] range = BinarySearch.rangeOf(terms, termOfPrefix, Term.byPrefixOrder(prefix.length()));
+      int firstIndex = range[0];
+      int lastIndex = range[1];
       if (firstIndex == -1) {
          Term[] nothing = new Term[0];
          return nothing;
       }
       
-      int lastIndex = BinarySearch.lastIndexOf(terms, termOfPrefix, Term.byPrefixOrder(prefix.length())); 
-      if (lastIndex == -1) {
-         Term[] nothing = new Term[0];
-         return nothing;
-      }
-      
       // Creating the array of matches
       Term[] matchingPs = Arrays.copyOfRange(terms, firstIndex, lastIndex + 1);
       
@@ -57,6 +150,45 @@ public class Autocomplete {
       
       return matchingPs;
    }
+   
+   /**
+    * Returns the k heaviest terms that start with the given prefix, in
+    * descending order of weight, or all of them if there are fewer than k.
+    * The result is the same as the first k terms of allMatches, but the
+    * matching range is never copied or sorted. The heaviest term left in a
+    * range is found with the segment tree, and a queue of ranges hands out
+    * the next heaviest one each time, so this takes O(k log m) time for m
+    * matches. This method throws a NullPointerException if prefix is null,
+    * and an IllegalArgumentException if k is negative.
+    */
+   public Term[] topMatches(String prefix, int k) {
+      if (prefix == null) {
+         throw new NullPointerException();
+      }
+      if (k < 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      // Every term starts with the empty prefix.
+      int firstIndex = 0;
+      int lastIndex = terms.length - 1;
+      if (prefix.length() > 0) {
+         int[] range = BinarySearch.rangeOf(terms, new Term(prefix, 0),
+            Term.byPrefixOrder(prefix.length()));
+         if (range[0] == -1) {
+            return new Term[0];
+         }
+         firstIndex = range[0];
+         lastIndex = range[1];
+      }
+      
+      int[] best = heaviest.top(firstIndex, lastIndex, k);
+      Term[] top = new Term[best.length];
+      for (int i = 0; i < best.length; i++) {
+         top[i] = terms[best[i]];
+      }
+      return top;
+   }
 
 }
 
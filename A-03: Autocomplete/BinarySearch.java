@@ -75,4 +75,67 @@ public class BinarySearch {
       return -1;
    }
 
+   /**
+    * Returns the indexes of the first and last keys in a[] that equal the
+    * search key, as {first, last}, or {-1, -1} if no such key exists. Both
+    * ends are found in one descent: it narrows the bound as usual until it
+    * lands on an equal key, and only then splits into a search for the first
+    * key to the left and one for the last key to the right. This method
+    * throws a NullPointerException if any parameter is null.
+    */
+   public static <Key> int[] rangeOf(Key[] a, Key key, Comparator<Key> comparator) {
+      if (a == null || key == null || comparator == null) {
+         throw new NullPointerException();
+      }
+      
+      int left = 0; // left most index of bound
+      int right = a.length - 1; // right most index of bound
+      
+      while (left <= right) {
+      
+         int middle = left + (right - left) / 2; // declaring middle value of bound
+         int order = comparator.compare(a[middle], key);
+         
+         if (order < 0) {
+            left = middle + 1;
+         }
+         else if (order > 0) {
+            right = middle - 1;
+         }
+         
+         // middle equals key, so the first key is in [left, middle] and the
+         // last key is in [middle, right].
+         else {
+            int first = middle;
+            int hi = middle - 1;
+            while (left <= hi) {
+               int m = left + (hi - left) / 2;
+               if (comparator.compare(a[m], key) == 0) {
+                  first = m;
+                  hi = m - 1;
+               }
+               else {
+                  left = m + 1;
+               }
+            }
+            
+            int last = middle;
+            int lo = middle + 1;
+            while (lo <= right) {
+               int m = lo + (right - lo) / 2;
+               if (comparator.compare(a[m], key) == 0) {
+                  last = m;
+                  lo = m + 1;
+               }
+               else {
+                  right = m - 1;
+               }
+            }
+            return new int[] {first, last};
+         }
+      }
+      
+      return new int[] {-1, -1};
+   }
+
 }
@@ -0,0 +1,332 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Autocomplete over terms stored column by column instead of as Term objects.
+ * Every query is packed end to end into one char array, with an int array of
+ * where each one starts, and the weights sit in a long array. Terms are kept
+ * in ascending lexicographic order of query, as in Autocomplete, and searches
+ * compare characters straight out of the packed array. Term objects are only
+ * made for the terms a method returns, and load reads a file without making
+ * any at all.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class ColumnarAutocomplete {
+
+   // The query of term i is chars[offsets[i]] up to chars[offsets[i + 1] - 1].
+   private final char[] chars;
+   private final int[] offsets;
+   private final long[] weights;
+
+   // Segment tree over weights.
+   private final HeaviestTree heaviest;
+
+   /**
+    * Initializes a data structure from the given array of terms.
+    * This method throws a NullPointerException if terms is null.
+    */
+   public ColumnarAutocomplete(Term[] terms) {
+      if (terms == null) {
+         throw new NullPointerException();
+      }
+
+      Term[] sorted = Arrays.copyOf(terms, terms.length);
+      Arrays.sort(sorted);
+
+      long totalChars = 0;
+      for (Term term : sorted) {
+         totalChars += term.getQuery().length();
+      }
+      if (totalChars > Integer.MAX_VALUE) {
+         throw new IllegalArgumentException();
+      }
+
+      chars = new char[(int) totalChars];
+      offsets = new int[sorted.length + 1];
+      weights = new long[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+         String query = sorted[i].getQuery();
+         query.getChars(0, query.length(), chars, offsets[i]);
+         offsets[i + 1] = offsets[i] + query.length();
+         weights[i] = sorted[i].getWeight();
+      }
+
+      heaviest = new HeaviestTree(weights);
+   }
+
+   /**
+    * Initializes a data structure that takes over the first count terms of
+    * the given columns, which nothing else refers to, putting them in order
+    * of query unless they already are. Only the int order is sorted; the
+    * columns are then copied once into that order, or just trimmed to size if
+    * they were in order already.
+    */
+   private ColumnarAutocomplete(char[] chars, int[] offsets, long[] weights, int count) {
+      int[] order = new int[count];
+      boolean sorted = true;
+      for (int i = 0; i < count; i++) {
+         order[i] = i;
+         sorted &= i == 0 || compareQueries(chars, offsets, i - 1, i) <= 0;
+      }
+
+      if (sorted) {
+         this.chars = Arrays.copyOf(chars, offsets[count]);
+         this.offsets = Arrays.copyOf(offsets, count + 1);
+         this.weights = Arrays.copyOf(weights, count);
+      }
+      else {
+         sortByQuery(chars, offsets, order, new int[count], 0, count);
+         this.chars = new char[offsets[count]];
+         this.offsets = new int[count + 1];
+         this.weights = new long[count];
+         for (int i = 0; i < count; i++) {
+            int from = order[i];
+            int length = offsets[from + 1] - offsets[from];
+            System.arraycopy(chars, offsets[from], this.chars, this.offsets[i], length);
+            this.offsets[i + 1] = this.offsets[i] + length;
+            this.weights[i] = weights[from];
+         }
+      }
+      heaviest = new HeaviestTree(this.weights);
+   }
+
+   /**
+    * Reads the terms in the named file straight into the packed columns,
+    * without making a Term for any of them. Lines are read as by
+    * Autocomplete.load: each holds a weight, a tab and a query, may start
+    * with spaces, and is skipped if it has no tab. This method throws an
+    * IOException if the file can't be read, a weight is not a non-negative
+    * number, or the queries hold more characters than fit in one array.
+    */
+   public static ColumnarAutocomplete load(String fileName) throws IOException {
+      char[] chars = new char[1 << 16];
+      int[] offsets = new int[1024 + 1];
+      long[] weights = new long[1024];
+      int count = 0;
+
+      try (BufferedReader in = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+         int lineNumber = 0;
+         for (String line = in.readLine(); line != null; line = in.readLine()) {
+            lineNumber++;
+            int tab = line.indexOf('\t');
+            if (tab == -1) {
+               continue;
+            }
+            long weight = -1;
+            try {
+               weight = Long.parseLong(line.substring(0, tab).trim());
+            }
+            catch (NumberFormatException e) {
+               //Reported below, along with negative weights.
+            }
+            if (weight < 0) {
+               throw new IOException("Bad weight on line " + lineNumber + " of " + fileName);
+            }
+
+            //Growing each column by half whenever it fills up.
+            int used = offsets[count];
+            int length = line.length() - tab - 1;
+            if (used + length > chars.length) {
+               long grown = Math.max((long) used + length, chars.length + (chars.length >> 1));
+               if (grown > Integer.MAX_VALUE - 8) {
+                  throw new IOException("Too many query characters in " + fileName);
+               }
+               chars = Arrays.copyOf(chars, (int) grown);
+            }
+            if (count == weights.length) {
+               weights = Arrays.copyOf(weights, count + (count >> 1));
+               offsets = Arrays.copyOf(offsets, weights.length + 1);
+            }
+
+            line.getChars(tab + 1, line.length(), chars, used);
+            weights[count] = weight;
+            offsets[++count] = used + length;
+         }
+      }
+      return new ColumnarAutocomplete(chars, offsets, weights, count);
+   }
+
+   /**
+    * Returns the number of terms.
+    */
+   public int size() {
+      return weights.length;
+   }
+
+   /**
+    * Returns all terms that start with the given prefix, in descending order
+    * of weight, with equal weights in lexicographic order. Every term starts
+    * with the empty prefix. This method throws a NullPointerException if
+    * prefix is null.
+    */
+   public Term[] allMatches(String prefix) {
+      if (prefix == null) {
+         throw new NullPointerException();
+      }
+
+      int first = firstAtLeast(prefix, 0);
+      int end = firstAtLeast(prefix, 1);
+
+      // Ordering the indexes of the matches by weight, then making Terms.
+      int[] order = new int[end - first];
+      for (int i = 0; i < order.length; i++) {
+         order[i] = first + i;
+      }
+      sortByWeight(order, new int[order.length], 0, order.length);
+
+      Term[] matches = new Term[order.length];
+      for (int i = 0; i < order.length; i++) {
+         matches[i] = termAt(order[i]);
+      }
+      return matches;
+   }
+
+   /**
+    * Returns the k heaviest terms that start with the given prefix, in the
+    * same order as allMatches, using the same segment tree over the weights
+    * as Autocomplete.topMatches. This method throws a
+    * NullPointerException if prefix is null, and an IllegalArgumentException
+    * if k is negative.
+    */
+   public Term[] topMatches(String prefix, int k) {
+      if (prefix == null) {
+         throw new NullPointerException();
+      }
+      if (k < 0) {
+         throw new IllegalArgumentException();
+      }
+
+      int firstIndex = firstAtLeast(prefix, 0);
+      int lastIndex = firstAtLeast(prefix, 1) - 1;
+      int[] best = heaviest.top(firstIndex, lastIndex, k);
+      Term[] top = new Term[best.length];
+      for (int i = 0; i < best.length; i++) {
+         top[i] = termAt(best[i]);
+      }
+      return top;
+   }
+
+   /**
+    * Returns the index of the first term whose query, cut to the length of
+    * prefix, compares to prefix at least as high as floor (0 for the first
+    * match, 1 for the first term past the matches).
+    */
+   private int firstAtLeast(String prefix, int floor) {
+      int left = 0;
+      int right = weights.length;
+      while (left < right) {
+         int middle = left + (right - left) / 2;
+         if (comparePrefix(middle, prefix) >= floor) {
+            right = middle;
+         }
+         else {
+            left = middle + 1;
+         }
+      }
+      return left;
+   }
+
+   /**
+    * Compares the first prefix.length() characters of term i's query with
+    * prefix, in place, the same way as Term.byPrefixOrder. Returns a
+    * negative number, zero or a positive number as that part of the query
+    * sorts before, equal to or after prefix.
+    */
+   private int comparePrefix(int i, String prefix) {
+      int start = offsets[i];
+      int length = Math.min(prefix.length(), offsets[i + 1] - start);
+      for (int j = 0; j < length; j++) {
+         char c = chars[start + j];
+         if (c != prefix.charAt(j)) {
+            return c - prefix.charAt(j);
+         }
+      }
+      return length - prefix.length();
+   }
+
+   /**
+    * Makes the Term for the term at index i.
+    */
+   private Term termAt(int i) {
+      return new Term(new String(chars, offsets[i], offsets[i + 1] - offsets[i]), weights[i]);
+   }
+
+   /**
+    * Compares the queries of terms i and j in the given columns the same way
+    * as String.compareTo.
+    */
+   private static int compareQueries(char[] chars, int[] offsets, int i, int j) {
+      int a = offsets[i];
+      int b = offsets[j];
+      int lengthA = offsets[i + 1] - a;
+      int lengthB = offsets[j + 1] - b;
+      int length = Math.min(lengthA, lengthB);
+      for (int k = 0; k < length; k++) {
+         if (chars[a + k] != chars[b + k]) {
+            return chars[a + k] - chars[b + k];
+         }
+      }
+      return lengthA - lengthB;
+   }
+
+   /**
+    * Merge sorts order[lo..hi) into ascending order of query. Ties keep their
+    * order, as with Arrays.sort on Terms.
+    */
+   private static void sortByQuery(char[] chars, int[] offsets, int[] order, int[] buffer,
+         int lo, int hi) {
+      if (hi - lo < 2) {
+         return;
+      }
+      int middle = (lo + hi) >>> 1;
+      sortByQuery(chars, offsets, order, buffer, lo, middle);
+      sortByQuery(chars, offsets, order, buffer, middle, hi);
+      if (compareQueries(chars, offsets, order[middle - 1], order[middle]) <= 0) {
+         return; //the halves are already in order.
+      }
+
+      System.arraycopy(order, lo, buffer, lo, hi - lo);
+      int left = lo;
+      int right = middle;
+      for (int i = lo; i < hi; i++) {
+         if (right == hi || (left < middle
+               && compareQueries(chars, offsets, buffer[left], buffer[right]) <= 0)) {
+            order[i] = buffer[left++];
+         }
+         else {
+            order[i] = buffer[right++];
+         }
+      }
+   }
+
+   /**
+    * Merge sorts order[lo..hi) into descending order of weight. Ties keep
+    * their order, so equal weights stay lexicographic.
+    */
+   private void sortByWeight(int[] order, int[] buffer, int lo, int hi) {
+      if (hi - lo < 2) {
+         return;
+      }
+      int middle = (lo + hi) >>> 1;
+      sortByWeight(order, buffer, lo, middle);
+      sortByWeight(order, buffer, middle, hi);
+
+      System.arraycopy(order, lo, buffer, lo, hi - lo);
+      int left = lo;
+      int right = middle;
+      for (int i = lo; i < hi; i++) {
+         if (right == hi || (left < middle && weights[buffer[left]] >= weights[buffer[right]])) {
+            order[i] = buffer[left++];
+         }
+         else {
+            order[i] = buffer[right++];
+         }
+      }
+   }
+
+}
@@ -0,0 +1,113 @@
+import java.util.PriorityQueue;
+
+/**
+ * Segment tree over an array of term weights that finds the heaviest terms in
+ * a range of indexes. Autocomplete and ColumnarAutocomplete both keep their
+ * terms in ascending lexicographic order of query, so the matches of a prefix
+ * are one range, and both answer topMatches with this tree.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+class HeaviestTree {
+
+   private final long[] weights;
+
+   // heaviest[1] is the index of the heaviest term, heaviest[i] covers what
+   // its children 2i and 2i + 1 cover, and heaviest[n + i] is just term i.
+   // Ties go to the lower index.
+   private final int[] heaviest;
+
+   /**
+    * Builds the tree bottom up over the given weights, which it keeps and
+    * which must not change afterwards.
+    *
+    * @param  weights  the weight of each term, by index
+    */
+   HeaviestTree(long[] weights) {
+      this.weights = weights;
+      int n = weights.length;
+      heaviest = new int[2 * n];
+      for (int i = 0; i < n; i++) {
+         heaviest[n + i] = i;
+      }
+      for (int i = n - 1; i > 0; i--) {
+         heaviest[i] = heavier(heaviest[2 * i], heaviest[2 * i + 1]);
+      }
+   }
+
+   /**
+    * Returns the indexes of the k heaviest terms from first to last,
+    * inclusive, in descending order of weight with ties in ascending order of
+    * index, or all of them if there are fewer than k. The heaviest term left
+    * in a range is found with the tree, and a queue of ranges hands out the
+    * next heaviest one each time, so this takes O(k log m) time for m terms
+    * in the range.
+    *
+    * @param  first  the first index of the range
+    * @param  last   the last index of the range, below first if it is empty
+    * @param  k      how many indexes to return at most, not negative
+    * @return        the indexes of the heaviest terms, heaviest first
+    */
+   int[] top(int first, int last, int k) {
+      if (last < first || k == 0) {
+         return new int[0];
+      }
+
+      // Each entry is {heaviest index, range start, range end}. Ranges never
+      // overlap, so two entries only share an index when compared with itself.
+      PriorityQueue<int[]> ranges = new PriorityQueue<int[]>(
+         (a, b) -> (a[0] == b[0]) ? 0 : (heavier(a[0], b[0]) == a[0]) ? -1 : 1);
+      ranges.add(new int[] {heaviestIn(first, last), first, last});
+
+      int[] top = new int[Math.min(k, last - first + 1)];
+      for (int i = 0; i < top.length; i++) {
+         int[] range = ranges.poll();
+         int best = range[0];
+         top[i] = best;
+
+         // Splitting the range around the term just taken.
+         if (range[1] < best) {
+            ranges.add(new int[] {heaviestIn(range[1], best - 1), range[1], best - 1});
+         }
+         if (best < range[2]) {
+            ranges.add(new int[] {heaviestIn(best + 1, range[2]), best + 1, range[2]});
+         }
+      }
+      return top;
+   }
+
+   /**
+    * Returns whichever of the two term indexes has the larger weight, or the
+    * lower index if their weights are equal. -1 stands for no term.
+    */
+   private int heavier(int i, int j) {
+      if (i == -1) {
+         return j;
+      }
+      if (j == -1) {
+         return i;
+      }
+      if (weights[i] != weights[j]) {
+         return (weights[i] > weights[j]) ? i : j;
+      }
+      return Math.min(i, j);
+   }
+
+   /**
+    * Returns the index of the heaviest term from lo to hi, inclusive.
+    */
+   private int heaviestIn(int lo, int hi) {
+      int best = -1;
+      //Climbing from both ends, taking in every node that hangs off the range.
+      for (int l = lo + weights.length, r = hi + weights.length + 1; l < r; l /= 2, r /= 2) {
+         if (l % 2 == 1) {
+            best = heavier(best, heaviest[l++]);
+         }
+         if (r % 2 == 1) {
+            best = heavier(best, heaviest[--r]);
+         }
+      }
+      return best;
+   }
+
+}
@@ -9,6 +9,11 @@ public class Term implements Comparable<Term> {
    private String query;
    private long weight;
    
+   // Prefix comparators for the most common lengths, made once and shared,
+   // since they hold nothing but their length.
+   private static final int CACHED_PREFIX_ORDERS = 32;
+   private static final Comparator<Term>[] PREFIX_ORDERS = prefixOrders();
+   
    /**
     * Initialize a term with the given query and weight.
     * This method throws a NullPointerException if query is null,
@@ -58,13 +63,46 @@ public class Term implements Comparable<Term> {
       if (length <= 0) {
          throw new IllegalArgumentException();
       }
-      
+      if (length <= CACHED_PREFIX_ORDERS) {
+         return PREFIX_ORDERS[length];
+      }
+      return newPrefixOrder(length);
+   }
+   
+   /**
+    * Makes the shared prefix comparators for lengths 1 to CACHED_PREFIX_ORDERS.
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private static Comparator<Term>[] prefixOrders() {
+      Comparator<Term>[] orders = new Comparator[CACHED_PREFIX_ORDERS + 1];
+      for (int length = 1; length <= CACHED_PREFIX_ORDERS; length++) {
+         orders[length] = newPrefixOrder(length);
+      }
+      return orders;
+   }
+   
+   /**
+    * Makes a comparator on the first length characters of query. It compares
+    * the characters in place, so it orders terms the same as comparing the
+    * two prefixes with compareTo without building them as substrings.
+    */
+   private static Comparator<Term> newPrefixOrder(int length) {
       return 
          new Comparator<Term>() {
             public int compare(Term t1, Term t2) {
-               String prefixOfT1 = t1.getQuery().substring(0, Math.min(length, t1.getQuery().length())); 
-               String prefixOfT2 = t2.getQuery().substring(0, Math.min(length, t2.getQuery().length()));
-               return prefixOfT1.compareTo(prefixOfT2);
+               String query1 = t1.getQuery();
+               String query2 = t2.getQuery();
+               int length1 = Math.min(length, query1.length());
+               int length2 = Math.min(length, query2.length());
+               int shorter = Math.min(length1, length2);
+               for (int i = 0; i < shorter; i++) {
+                  char c1 = query1.charAt(i);
+                  char c2 = query2.charAt(i);
+                  if (c1 != c2) {
+                     return c1 - c2;
+                  }
+               }
+               return length1 - length2;
             }
          };
    }
@@ -93,14 +131,14 @@ public class Term implements Comparable<Term> {
    /**
     * Returns a long of the term's weight.
     */
-   private long getWeight() {
+   long getWeight() {
       return weight; 
    }
    
    /**
     * Returns a string of the term's query.
     */ 
-   private String getQuery() {
+   String getQuery() {
       return query;
    }
 
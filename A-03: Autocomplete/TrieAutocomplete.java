@@ -0,0 +1,228 @@
+import java.util.Arrays;
+
+/**
+ * Autocomplete engine built on a trie of the term queries, in which every
+ * node caches the k heaviest terms that start with its prefix. A query walks
+ * the prefix one character at a time and returns that node's cached terms,
+ * so its cost depends on the length of the prefix and on k, not on how many
+ * terms match.
+ *
+ * Nodes are numbered in breadth-first order, so the children of every node
+ * sit next to each other in a few flat arrays, and the cached terms of all
+ * nodes share one array of term indexes.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class TrieAutocomplete {
+
+   private static final int ROOT = 0;
+   private static final int NONE = -1;
+
+   // The terms in ascending lexicographic order of query.
+   private final Term[] terms;
+   private final int k;
+
+   // Children of node n are the nodes firstChild[n] up to firstChild[n + 1] - 1.
+   private final int[] firstChild;
+   // The character on the edge leading into each node, sorted among siblings.
+   private final char[] label;
+   // The cached terms of node n are topTerms[topStart[n]] up to
+   // topTerms[topStart[n + 1] - 1], as indexes into terms, heaviest first.
+   private final int[] topStart;
+   private final int[] topTerms;
+
+   /**
+    * Initializes a trie from the given array of terms that remembers the k
+    * heaviest terms for every prefix. This method throws a
+    * NullPointerException if terms is null, and an IllegalArgumentException
+    * if k is less than 1.
+    */
+   public TrieAutocomplete(Term[] terms, int k) {
+      if (terms == null) {
+         throw new NullPointerException();
+      }
+      if (k < 1) {
+         throw new IllegalArgumentException();
+      }
+      
+      this.terms = Arrays.copyOf(terms, terms.length);
+      Arrays.sort(this.terms);
+      this.k = k;
+      
+      int capacity = Math.max(16, this.terms.length * 2);
+      int[] childStart = new int[capacity + 1];
+      char[] labels = new char[capacity];
+      // Range of terms [rangeLo, rangeHi) whose queries start with each
+      // node's prefix, and where the terms longer than the prefix begin.
+      int[] rangeLo = new int[capacity];
+      int[] rangeHi = new int[capacity];
+      int[] longerLo = new int[capacity];
+      
+      int count = 1;
+      rangeLo[ROOT] = 0;
+      rangeHi[ROOT] = this.terms.length;
+      
+      // Expanding nodes in breadth-first order so siblings stay contiguous.
+      for (int node = 0, depth = 0, levelEnd = 1; node < count; node++) {
+         if (node == levelEnd) {
+            depth++;
+            levelEnd = count;
+         }
+         
+         int lo = rangeLo[node];
+         int hi = rangeHi[node];
+         
+         // Queries equal to the prefix sort before any longer query.
+         while (lo < hi && this.terms[lo].getQuery().length() == depth) {
+            lo++;
+         }
+         longerLo[node] = lo;
+         childStart[node] = count;
+         
+         // Grouping the remaining terms by their next character.
+         while (lo < hi) {
+            char c = this.terms[lo].getQuery().charAt(depth);
+            int end = lo + 1;
+            while (end < hi && this.terms[end].getQuery().charAt(depth) == c) {
+               end++;
+            }
+            
+            if (count == labels.length) {
+               int grown = labels.length * 2;
+               childStart = Arrays.copyOf(childStart, grown + 1);
+               labels = Arrays.copyOf(labels, grown);
+               rangeLo = Arrays.copyOf(rangeLo, grown);
+               rangeHi = Arrays.copyOf(rangeHi, grown);
+               longerLo = Arrays.copyOf(longerLo, grown);
+            }
+            
+            labels[count] = c;
+            rangeLo[count] = lo;
+            rangeHi[count] = end;
+            count++;
+            lo = end;
+         }
+      }
+      childStart[count] = count;
+      
+      firstChild = Arrays.copyOf(childStart, count + 1);
+      label = Arrays.copyOf(labels, count);
+      
+      // Filling the caches from the leaves up. Children are numbered after
+      // their parent, so walking the nodes backwards finishes every child
+      // before its parent. Each node's cache is merged from the terms equal to
+      // its prefix and its children's caches.
+      int[][] top = new int[count][];
+      int[] best = new int[k];
+      int cached = 0;
+      for (int node = count - 1; node >= 0; node--) {
+         int size = 0;
+         for (int i = rangeLo[node]; i < longerLo[node]; i++) {
+            size = offer(best, size, i);
+         }
+         for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            for (int i : top[child]) {
+               // A child's cache is heaviest first, so the rest can't get in.
+               if (size == k && !heavier(i, best[k - 1])) {
+                  break;
+               }
+               size = offer(best, size, i);
+            }
+         }
+         top[node] = Arrays.copyOf(best, size);
+         cached += size;
+      }
+      
+      topStart = new int[count + 1];
+      topTerms = new int[cached];
+      for (int node = 0; node < count; node++) {
+         System.arraycopy(top[node], 0, topTerms, topStart[node], top[node].length);
+         topStart[node + 1] = topStart[node] + top[node].length;
+         top[node] = null;
+      }
+   }
+
+   /**
+    * Adds the term at index i to the size heaviest terms in best if it is
+    * heavy enough, keeping best in order, and returns the new size.
+    */
+   private int offer(int[] best, int size, int i) {
+      if (size == best.length && !heavier(i, best[size - 1])) {
+         return size;
+      }
+      int at = Math.min(size, best.length - 1);
+      while (at > 0 && heavier(i, best[at - 1])) {
+         best[at] = best[at - 1];
+         at--;
+      }
+      best[at] = i;
+      return Math.min(size + 1, best.length);
+   }
+
+   /**
+    * Returns true if the term at index i comes before the term at index j in
+    * descending order of weight, with ties in lexicographic order.
+    */
+   private boolean heavier(int i, int j) {
+      long wi = terms[i].getWeight();
+      long wj = terms[j].getWeight();
+      return (wi != wj) ? wi > wj : i < j;
+   }
+
+   /**
+    * Returns the k heaviest terms that start with the given prefix, in
+    * descending order of weight, or all of them if there are fewer than k.
+    * Terms of equal weight come in lexicographic order, the same as in
+    * Autocomplete.allMatches. This method throws a NullPointerException if
+    * prefix is null.
+    */
+   public Term[] topMatches(String prefix) {
+      if (prefix == null) {
+         throw new NullPointerException();
+      }
+      
+      int node = ROOT;
+      for (int i = 0; i < prefix.length() && node != NONE; i++) {
+         node = child(node, prefix.charAt(i));
+      }
+      if (node == NONE) {
+         return new Term[0];
+      }
+      
+      Term[] matches = new Term[topStart[node + 1] - topStart[node]];
+      for (int i = 0; i < matches.length; i++) {
+         matches[i] = terms[topTerms[topStart[node] + i]];
+      }
+      return matches;
+   }
+
+   /**
+    * Returns the number of terms cached for each prefix.
+    */
+   public int getK() {
+      return k;
+   }
+
+   /**
+    * Returns the child of node reached by the edge labeled c, or NONE if there
+    * is no such child. Siblings are sorted, so this is a binary search.
+    */
+   private int child(int node, char c) {
+      int lo = firstChild[node];
+      int hi = firstChild[node + 1] - 1;
+      while (lo <= hi) {
+         int middle = lo + (hi - lo) / 2;
+         if (label[middle] < c) {
+            lo = middle + 1;
+         }
+         else if (label[middle] > c) {
+            hi = middle - 1;
+         }
+         else {
+            return middle;
+         }
+      }
+      return NONE;
+   }
+
+}
@@ -0,0 +1,62 @@
+import java.util.List;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves many word search boards at once against one shared lexicon. The
+ * lexicon trie is never changed after it is built, so every board gets its own
+ * lightweight engine and the boards can be solved concurrently without locks.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class BatchBoardSolver {
+
+   private final LexiconTrie lexicon;
+
+   /**
+    * Creates a solver that plays every board with the given lexicon.
+    *
+    * @param lexicon the lexicon shared by every board.
+    * @throws IllegalArgumentException if lexicon is null.
+    */
+   public BatchBoardSolver(LexiconTrie lexicon) {
+      if (lexicon == null) {
+         throw new IllegalArgumentException();
+      }
+      this.lexicon = lexicon;
+   }
+
+   /**
+    * Retrieves all scorable words on each of the given boards. The boards are
+    * solved in parallel, and the results come back in the same order as the
+    * boards.
+    *
+    * @param boards the boards to solve, each in the row-major form taken by
+    *     WordSearchGame.setBoard.
+    * @param minimumWordLength The minimum allowed length (i.e., number of
+    *     characters) for any word found on a board.
+    * @return a list holding the scorable words of each board.
+    * @throws IllegalArgumentException if boards is null, if any board is null
+    *     or not square, or if minimumWordLength < 1.
+    */
+   public List<SortedSet<String>> solveAll(Stream<String[]> boards, int minimumWordLength) {
+      if (boards == null || minimumWordLength < 1) {
+         throw new IllegalArgumentException();
+      }
+
+      return boards.parallel()
+         .map(board -> solve(board, minimumWordLength))
+         .collect(Collectors.toList());
+   }
+
+   /**
+    * Retrieves all scorable words on a single board.
+    */
+   private SortedSet<String> solve(String[] board, int minimumWordLength) {
+      WordSearchGame engine = WordSearchGameFactory.createGame(lexicon);
+      engine.setBoard(board);
+      return engine.getAllScorableWords(minimumWordLength);
+   }
+
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.stream.Stream;
+
+/**
+ * Measures how many random boards per second BatchBoardSolver can solve on
+ * 4x4, 10x10 and 20x20 boards using words_medium.txt.
+ *
+ *      java BatchSolveBenchmark [lexicon file]
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class BatchSolveBenchmark {
+
+   // Letters drawn for each cell, repeated roughly in proportion to how often
+   // they show up in English words.
+   private static final String LETTERS =
+      "EEEEEEEEEEEEAAAAAAAAAIIIIIIIIIOOOOOOOONNNNNNRRRRRRTTTTTTLLLLSSSSUUUU"
+      + "DDDDGGGBBCCMMPPFFHHVVWWYYKJXQZ";
+
+   private static final int[] SIZES = {4, 10, 20};
+   private static final int MINIMUM_WORD_LENGTH = 3;
+   private static final long WARMUP_NANOS = 2_000_000_000L;
+   private static final long MEASURE_NANOS = 5_000_000_000L;
+
+   /** Drives execution. */
+   public static void main(String[] args) throws IOException {
+      String fileName = args.length > 0 ? args[0] : "words_medium.txt";
+      BatchBoardSolver solver = new BatchBoardSolver(LexiconTrie.read(fileName));
+      Random random = new Random(2210);
+
+      System.out.println("Lexicon: " + fileName + ", threads: "
+         + Runtime.getRuntime().availableProcessors());
+      for (int size : SIZES) {
+         //Solving batches for a while first so the JIT has compiled the solver.
+         run(solver, random, size, WARMUP_NANOS);
+         double[] result = run(solver, random, size, MEASURE_NANOS);
+         System.out.printf("%2dx%-2d  %10.1f boards/sec  %8.1f words/board%n",
+            size, size, result[0], result[1]);
+      }
+   }
+
+   /**
+    * Solves batches of random boards of the given size until at least nanos
+    * nanoseconds have passed.
+    *
+    * @return the boards solved per second and the average words per board.
+    */
+   private static double[] run(BatchBoardSolver solver, Random random, int size, long nanos) {
+      // Roughly the same number of cells per batch for every board size.
+      int batchSize = Math.max(16, 16_000 / (size * size));
+      long boards = 0;
+      long words = 0;
+      long start = System.nanoTime();
+      long elapsed = 0;
+      while (elapsed < nanos) {
+         String[][] batch = new String[batchSize][];
+         for (int i = 0; i < batchSize; i++) {
+            batch[i] = randomBoard(random, size);
+         }
+         List<SortedSet<String>> solved = solver.solveAll(Stream.of(batch), MINIMUM_WORD_LENGTH);
+         for (SortedSet<String> found : solved) {
+            words += found.size();
+         }
+         boards += batchSize;
+         elapsed = System.nanoTime() - start;
+      }
+      return new double[] {boards * 1e9 / elapsed, (double) words / boards};
+   }
+
+   /**
+    * Returns a random size x size board in row-major order.
+    */
+   private static String[] randomBoard(Random random, int size) {
+      String[] board = new String[size * size];
+      for (int i = 0; i < board.length; i++) {
+         char letter = LETTERS.charAt(random.nextInt(LETTERS.length()));
+         board[i] = (letter == 'Q') ? "QU" : String.valueOf(letter);
+      }
+      return board;
+   }
+
+}
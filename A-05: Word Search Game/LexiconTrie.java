@@ -0,0 +1,392 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Scanner;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Compact, read-only trie of the words in a lexicon. Nodes are numbered in
+ * breadth-first order so that the children of every node sit next to each
+ * other, which lets the whole trie live in a few flat arrays instead of one
+ * object per node. Those arrays can also be written to a binary snapshot file
+ * and mapped back in with {@link #load}, which skips parsing the word list.
+ *
+ * A trie is immutable once built, so a single instance can be shared by any
+ * number of threads and WordSearchEngine sessions without locking.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public final class LexiconTrie {
+
+   /** Node number of the root (the empty prefix). */
+   public static final int ROOT = 0;
+
+   /** Returned by child lookups when there is no such child. */
+   public static final int NONE = -1;
+
+   // Snapshot files start with "LXTR" followed by the format version. Every
+   // value is big-endian, the ByteBuffer default, whatever machine wrote it.
+   private static final int SNAPSHOT_MAGIC = 0x4C585452;
+   private static final int SNAPSHOT_VERSION = 2;
+   // Magic, version, node count, word count and longest word length.
+   private static final int SNAPSHOT_HEADER_BYTES = 5 * Integer.BYTES;
+
+   // Children of node n are the nodes firstChild[n] up to firstChild[n + 1] - 1.
+   private final int[] firstChild;
+   // The character on the edge leading into each node, sorted among siblings.
+   private final char[] label;
+   // Whether the path from the root to each node spells a word.
+   private final boolean[] terminal;
+   // Length of the longest word below each node, counted from that node.
+   private final int[] height;
+
+   private final int wordCount;
+   private final int maxWordLength;
+
+   /**
+    * Builds a trie containing every string in words.
+    *
+    * @param words the words to store.
+    * @throws IllegalArgumentException if words is null.
+    */
+   public LexiconTrie(Collection<String> words) {
+      if (words == null) {
+         throw new IllegalArgumentException();
+      }
+
+      //Sorting and removing duplicates so every node covers a contiguous range.
+      SortedSet<String> sorted = new TreeSet<>(words);
+      String[] list = sorted.toArray(new String[0]);
+
+      int capacity = Math.max(16, list.length * 2);
+      int[] childStart = new int[capacity + 1];
+      char[] labels = new char[capacity];
+      boolean[] isWord = new boolean[capacity];
+      // Range of words [rangeLo, rangeHi) that begin with each node's prefix.
+      int[] rangeLo = new int[capacity];
+      int[] rangeHi = new int[capacity];
+
+      int count = 1;
+      rangeLo[ROOT] = 0;
+      rangeHi[ROOT] = list.length;
+      int longest = 0;
+
+      //Expanding nodes in breadth-first order so siblings stay contiguous.
+      for (int node = 0, depth = 0, levelEnd = 1; node < count; node++) {
+         if (node == levelEnd) {
+            depth++;
+            levelEnd = count;
+         }
+
+         int lo = rangeLo[node];
+         int hi = rangeHi[node];
+
+         //The prefix itself sorts before any longer word that starts with it.
+         if (lo < hi && list[lo].length() == depth) {
+            isWord[node] = true;
+            longest = Math.max(longest, depth);
+            lo++;
+         }
+
+         childStart[node] = count;
+
+         //Grouping the remaining words by their next character.
+         while (lo < hi) {
+            char c = list[lo].charAt(depth);
+            int end = lo + 1;
+            while (end < hi && list[end].charAt(depth) == c) {
+               end++;
+            }
+
+            if (count == labels.length) {
+               int grown = labels.length * 2;
+               childStart = Arrays.copyOf(childStart, grown + 1);
+               labels = Arrays.copyOf(labels, grown);
+               isWord = Arrays.copyOf(isWord, grown);
+               rangeLo = Arrays.copyOf(rangeLo, grown);
+               rangeHi = Arrays.copyOf(rangeHi, grown);
+            }
+
+            labels[count] = c;
+            rangeLo[count] = lo;
+            rangeHi[count] = end;
+            count++;
+            lo = end;
+         }
+      }
+      childStart[count] = count;
+
+      firstChild = Arrays.copyOf(childStart, count + 1);
+      label = Arrays.copyOf(labels, count);
+      terminal = Arrays.copyOf(isWord, count);
+      height = heights(firstChild);
+      wordCount = list.length;
+      maxWordLength = longest;
+   }
+
+   /**
+    * Builds the trie for the named file, which can either be a snapshot written
+    * by save or a word list. Every whitespace-separated token of a word list is
+    * stored in upper case.
+    *
+    * @param fileName the name of the file to read.
+    * @return the trie of the words in the file.
+    * @throws IOException if the file cannot be read.
+    */
+   public static LexiconTrie read(String fileName) throws IOException {
+      //Mapping the trie straight in if the file is a snapshot.
+      if (isSnapshot(fileName)) {
+         return load(fileName);
+      }
+   
+      //Collecting the words before building the trie in one pass.
+      SortedSet<String> words = new TreeSet<>();
+   
+      //Creating a scanner.
+      try (Scanner scan = new Scanner(new File(fileName))) {
+         while (scan.hasNextLine()) {
+            String line = scan.nextLine().toUpperCase().trim();
+            String[] tokens = line.split("\\s+"); // split line into words
+            for (String word : tokens) {
+               words.add(word);
+            }
+         }
+      }
+      return new LexiconTrie(words);
+   }
+
+   /**
+    * Creates a trie directly from its arrays, as read from a snapshot.
+    */
+   private LexiconTrie(int[] firstChild, char[] label, boolean[] terminal,
+       int wordCount, int maxWordLength) {
+      this.firstChild = firstChild;
+      this.label = label;
+      this.terminal = terminal;
+      this.height = heights(firstChild);
+      this.wordCount = wordCount;
+      this.maxWordLength = maxWordLength;
+   }
+
+   /**
+    * Computes how many more letters the longest word below each node has.
+    * Children are always numbered after their parent, so walking the nodes
+    * backwards finishes every child before its parent.
+    */
+   private static int[] heights(int[] firstChild) {
+      int nodes = firstChild.length - 1;
+      int[] heights = new int[nodes];
+      for (int node = nodes - 1; node >= 0; node--) {
+         for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            heights[node] = Math.max(heights[node], heights[child] + 1);
+         }
+      }
+      return heights;
+   }
+
+   /**
+    * Writes this trie to a binary snapshot file that load can read back.
+    *
+    * @param fileName the name of the file to write.
+    * @throws IOException if the file cannot be written.
+    */
+   public void save(String fileName) throws IOException {
+      int nodes = label.length;
+      ByteBuffer buffer = ByteBuffer.allocate(snapshotBytes(nodes));
+      buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+      buffer.putInt(nodes).putInt(wordCount).putInt(maxWordLength);
+      buffer.asIntBuffer().put(firstChild);
+      buffer.position(buffer.position() + firstChild.length * Integer.BYTES);
+      buffer.asCharBuffer().put(label);
+      buffer.position(buffer.position() + label.length * Character.BYTES);
+      for (boolean word : terminal) {
+         buffer.put(word ? (byte) 1 : (byte) 0);
+      }
+      buffer.flip();
+   
+      try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+      }
+   }
+
+   /**
+    * Reads a trie from a snapshot file written by save. The file is memory
+    * mapped and its arrays are copied out in bulk, so no words are parsed.
+    *
+    * @param fileName the name of the snapshot file.
+    * @return the trie stored in the file.
+    * @throws IOException if the file cannot be read or is not a snapshot.
+    */
+   public static LexiconTrie load(String fileName) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+         long length = channel.size();
+         if (length < SNAPSHOT_HEADER_BYTES) {
+            throw new IOException("Not a lexicon snapshot: " + fileName);
+         }
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      
+         int magic = buffer.getInt();
+         int version = buffer.getInt();
+         int nodes = buffer.getInt();
+         int words = buffer.getInt();
+         int longest = buffer.getInt();
+         if (magic == Integer.reverseBytes(SNAPSHOT_MAGIC)) {
+            throw new IOException("Lexicon snapshot in the wrong byte order: " + fileName);
+         }
+         if (magic != SNAPSHOT_MAGIC || version != SNAPSHOT_VERSION || nodes < 1
+               || length != snapshotBytes(nodes)) {
+            throw new IOException("Not a lexicon snapshot: " + fileName);
+         }
+      
+         int[] firstChild = new int[nodes + 1];
+         buffer.asIntBuffer().get(firstChild);
+         buffer.position(buffer.position() + firstChild.length * Integer.BYTES);
+         char[] label = new char[nodes];
+         buffer.asCharBuffer().get(label);
+         buffer.position(buffer.position() + label.length * Character.BYTES);
+         boolean[] terminal = new boolean[nodes];
+         for (int i = 0; i < nodes; i++) {
+            terminal[i] = buffer.get() != 0;
+         }
+         return new LexiconTrie(firstChild, label, terminal, words, longest);
+      }
+   }
+
+   /**
+    * Returns true if the named file starts like a snapshot written by save.
+    * A magic number in the opposite byte order counts too, so that read hands
+    * such a file to load, which rejects it, instead of parsing it as a word
+    * list.
+    *
+    * @param fileName the name of the file to check.
+    * @return true if the file looks like a snapshot, false otherwise.
+    * @throws IOException if the file cannot be read.
+    */
+   public static boolean isSnapshot(String fileName) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+         ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+         while (header.hasRemaining() && channel.read(header) >= 0) {
+            continue;
+         }
+         if (header.hasRemaining()) {
+            return false;
+         }
+         int magic = header.getInt(0);
+         return magic == SNAPSHOT_MAGIC || magic == Integer.reverseBytes(SNAPSHOT_MAGIC);
+      }
+   }
+
+   /**
+    * Returns the size in bytes of the snapshot of a trie with the given number
+    * of nodes.
+    */
+   private static int snapshotBytes(int nodes) {
+      return SNAPSHOT_HEADER_BYTES + (nodes + 1) * Integer.BYTES
+         + nodes * Character.BYTES + nodes;
+   }
+
+   /**
+    * Returns the child of node reached by following the edge labeled c, or
+    * NONE if there is no such child.
+    *
+    * @param node the node to step from.
+    * @param c the character on the edge to follow.
+    * @return the child node, or NONE.
+    */
+   public int child(int node, char c) {
+      int end = firstChild[node + 1];
+      //Siblings are sorted, so we can stop as soon as we pass c.
+      for (int i = firstChild[node]; i < end; i++) {
+         if (label[i] == c) {
+            return i;
+         }
+         if (label[i] > c) {
+            return NONE;
+         }
+      }
+      return NONE;
+   }
+
+   /**
+    * Follows every character of s starting at node.
+    *
+    * @param node the node to start from.
+    * @param s the characters to follow.
+    * @return the node reached, or NONE if the path leaves the trie.
+    */
+   public int walk(int node, String s) {
+      for (int i = 0; i < s.length() && node != NONE; i++) {
+         node = child(node, s.charAt(i));
+      }
+      return node;
+   }
+
+   /**
+    * Returns true if the path to node spells a word in the lexicon.
+    */
+   public boolean isWord(int node) {
+      return terminal[node];
+   }
+
+   /**
+    * Returns the number of letters that can still be added after the path to
+    * node before every word below it runs out.
+    */
+   public int getHeight(int node) {
+      return height[node];
+   }
+
+   /**
+    * Returns true if s is a word in the lexicon.
+    */
+   public boolean contains(String s) {
+      int node = walk(ROOT, s);
+      return node != NONE && terminal[node];
+   }
+
+   /**
+    * Returns true if at least one word in the lexicon starts with prefix.
+    */
+   public boolean hasPrefix(String prefix) {
+      return walk(ROOT, prefix) != NONE;
+   }
+
+   /**
+    * Returns the number of words in the lexicon.
+    */
+   public int size() {
+      return wordCount;
+   }
+
+   /**
+    * Returns true if the lexicon has no words.
+    */
+   public boolean isEmpty() {
+      return wordCount == 0;
+   }
+
+   /**
+    * Returns the length of the longest word in the lexicon.
+    */
+   public int getMaxWordLength() {
+      return maxWordLength;
+   }
+
+   /**
+    * Returns the number of nodes in the trie, including the root.
+    */
+   public int getNodeCount() {
+      return label.length;
+   }
+
+}
@@ -1,31 +1,117 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.TreeSet;
 import java.util.SortedSet;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.BitSet;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Game engine that builds a functioning game of word search.
+ *
+ * An engine holds the state of one game session (its board and the words found
+ * on it), so each thread or game should use its own engine. The lexicon is a
+ * LexiconTrie, which never changes once built; many engines can share one by
+ * passing it to the constructor, instead of each loading its own copy.
  * @author Demarco Guajardo (dag0047@auburn.edu)
  */
 public class WordSearchEngine implements WordSearchGame {
 
    //Fields
 
-   // Creating the lexicon structure to store words.
-   private SortedSet<String> lexicon = new TreeSet<>();
-   private String[][] board;
-   private Map<String, Boolean> memoizedWords;
+   // Trie of the lexicon words, built by loadLexicon or shared with other engines.
+   // The trie itself is never changed; loadLexicon just points at a new one.
+   private LexiconTrie lexicon;
+
+   // The board, compiled by setBoard. Cells are numbered in row-major order, and
+   // every distinct tile string is given a small code so hot loops compare ints.
+   private int size;                 // N, the width and height of the board.
+   private int[] cellTile;           // tile code of each cell.
+   private Map<String, Integer> tileCodes; // code of each tile string.
+   private String[] tiles;           // tile string for each code.
+   private char[][] tileLetters;     // letters of the tile for each code.
+   private int[] neighborStart;      // neighbors of cell c are neighbors[neighborStart[c]]
+   private int[] neighbors;          //   up to neighbors[neighborStart[c + 1] - 1].
+
+   // Index used to check player words quickly. Cells whose tile starts with the
+   // ASCII character c are startCells[startCellStart[c]] up to
+   // startCells[startCellStart[c + 1] - 1]; every other cell is filed under
+   // OTHER_CHARS. letterCount holds how often each ASCII character appears on
+   // the board, and letterTotal the number of characters on all tiles.
+   private int[] startCellStart;
+   private int[] startCells;
+   private int[] letterCount;
+   private int letterTotal;
+
+   // Scratch arrays reused by every isOnBoard call on this board, so checking a
+   // word allocates nothing unless it is found: letter counts of the word (all
+   // zero between calls), the cells of the path so far, and the bit of each
+   // cell on it (all clear between calls).
+   private int[] neededScratch;
+   private int[] pathScratch;
+   private long[] visitedScratch;
+
+   // Words found by the last solve of this board, and the minimum length it used.
+   // Any larger minimum length is answered by filtering this set; setBoard and
+   // loadLexicon throw it away.
+   private SortedSet<String> solvedWords;
+   private int solvedMinLength;
+
+   // Index kept by setCells so that changing a few cells only revisits the words
+   // near them: the cells used by any path of each word on the board, and the
+   // words with a path through each cell. While it exists, solvedWords holds
+   // every word on the board (minimum length 1) and is kept up to date with it.
+   private Map<String, BitSet> wordCells;
+   private List<Set<String>> cellWords;
+
+   // Characters below this are counted and indexed one by one; the rest share a slot.
+   private static final int OTHER_CHARS = 128;
+
+   // Smallest block of start cells the parallel solver will split off as a task.
+   private static final int MIN_CELLS_PER_TASK = 4;
+
+   // Row and column offsets of the eight neighbors of a cell, in the order
+   // their neighbor lists are compiled.
+   private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+   private static final int[] COL_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+
+   //Constructors
+
+   /**
+    * Creates an engine with no lexicon; loadLexicon must be called before
+    * playing.
+    */
+   public WordSearchEngine() {
+   }
+
+   /**
+    * Creates an engine that plays with an already built lexicon, which may be
+    * shared with any number of other engines.
+    * 
+    * @param lexicon The lexicon to play with.
+    * @throws IllegalArgumentException if lexicon is null.
+    */
+   public WordSearchEngine(LexiconTrie lexicon) {
+      if (lexicon == null) {
+         throw new IllegalArgumentException();
+      }
+      this.lexicon = lexicon;
+   }
 
 
    //Methods 
 
    /**
-    * Loads the lexicon into a data structure for later use. 
+    * Loads the lexicon into a data structure for later use. The file can either
+    * be a word list or a snapshot written by saveLexicon, which loads much
+    * faster because nothing has to be parsed.
     * 
     * @param fileName A string containing the name of the file to be opened.
     * @throws IllegalArgumentException if fileName is null
@@ -36,16 +122,50 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalArgumentException();
       }
    
-      //Creating a scanner.
-      try (Scanner scan = new Scanner(new File(fileName))) {
-         while (scan.hasNextLine()) {
-            String line = scan.nextLine().toUpperCase().trim();
-            String[] words = line.split("\\s+"); // split line into words
-            for (String word : words) {
-               lexicon.add(word);
-            }
-         }
-      } catch (FileNotFoundException exception) {
+      try {
+         lexicon = LexiconTrie.read(fileName);
+      } catch (IOException exception) {
+         throw new IllegalArgumentException();
+      }
+      solvedWords = null;
+      wordCells = null;
+   }
+
+   /**
+    * Returns the lexicon this engine plays with, so that it can be shared with
+    * other engines.
+    * 
+    * @return the loaded lexicon.
+    * @throws IllegalStateException if loadLexicon has not been called.
+    */
+   public LexiconTrie getLexicon() {
+      if (lexicon == null) {
+         throw new IllegalStateException();
+      }
+      return lexicon;
+   }
+
+   /**
+    * Saves the loaded lexicon as a binary snapshot that loadLexicon can read
+    * back without parsing the original word list.
+    * 
+    * @param fileName A string containing the name of the file to be written.
+    * @throws IllegalArgumentException if fileName is null
+    * @throws IllegalArgumentException if fileName cannot be written.
+    * @throws IllegalStateException if loadLexicon has not been called.
+    */
+   public void saveLexicon(String fileName) {
+      if (fileName == null) {
+         throw new IllegalArgumentException();
+      }
+   
+      if (lexicon == null) {
+         throw new IllegalStateException();
+      }
+   
+      try {
+         lexicon.save(fileName);
+      } catch (IOException exception) {
          throw new IllegalArgumentException();
       }
    }
@@ -53,7 +173,9 @@ public class WordSearchEngine implements WordSearchGame {
 
    /**
     * Stores the incoming array of Strings in a data structure that will make
-    * it convenient to find words.
+    * it convenient to find words. The board is compiled into a tile code per
+    * cell and a list of neighboring cells for each cell, so that solving and
+    * searching never have to bounds-check or compare Strings.
     * 
     * @param letterArray This array of length N^2 stores the contents of the
     * game board in row-major order. Thus, index 0 stores the contents of board
@@ -73,16 +195,230 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalArgumentException(); //board is not square.
       }
    
-      //Creating board. 
-      board = new String[size][size];
+      //Interning each distinct tile string as a code.
+      Map<String, Integer> codes = new HashMap<>();
+      List<String> distinct = new ArrayList<>();
+      int[] cellCodes = new int[letterArray.length];
+      for (int cell = 0; cell < letterArray.length; cell++) {
+         String tile = letterArray[cell];
+         if (tile == null) {
+            throw new IllegalArgumentException();
+         }
+         Integer code = codes.get(tile);
+         if (code == null) {
+            code = distinct.size();
+            codes.put(tile, code);
+            distinct.add(tile);
+         }
+         cellCodes[cell] = code;
+      }
    
-      //Adding values from letterArray into board.
-      for (int i = 0; i < size; i++) {
-         for (int j = 0; j < size; j++) {
-            //adds each value into each column before moving on to next row.
-            board[i][j] = letterArray[i * size + j];
+      char[][] letters = new char[distinct.size()][];
+      for (int code = 0; code < letters.length; code++) {
+         letters[code] = distinct.get(code).toCharArray();
+      }
+   
+      //Listing the in-bounds neighbors of every cell.
+      int[] starts = new int[letterArray.length + 1];
+      int[] adjacent = new int[letterArray.length * 8];
+      int count = 0;
+      for (int cell = 0; cell < letterArray.length; cell++) {
+         starts[cell] = count;
+         int row = cell / size;
+         int col = cell % size;
+         for (int i = 0; i < 8; i++) {
+            int r = row + ROW_OFFSETS[i];
+            int c = col + COL_OFFSETS[i];
+            if (r >= 0 && r < size && c >= 0 && c < size) {
+               adjacent[count++] = r * size + c;
+            }
+         }
+      }
+      starts[letterArray.length] = count;
+   
+      this.size = size;
+      cellTile = cellCodes;
+      tileCodes = codes;
+      tiles = distinct.toArray(new String[0]);
+      tileLetters = letters;
+      neighborStart = starts;
+      neighbors = Arrays.copyOf(adjacent, count);
+      indexLetters();
+      solvedWords = null;
+      wordCells = null;
+   }
+
+   /**
+    * Changes the tile on one cell of the current board. See setCells.
+    * 
+    * @param position The row-major position of the cell to change.
+    * @param letters The new contents of the cell.
+    * @throws IllegalArgumentException if position is not on the board, or
+    *     letters is null or empty.
+    * @throws IllegalStateException if loadLexicon or setBoard has not been called.
+    */
+   public void setCell(int position, String letters) {
+      setCells(new int[] {position}, new String[] {letters});
+   }
+
+   /**
+    * Changes the tiles on some cells of the current board and updates the
+    * scorable words to match, without solving the whole board again. The first
+    * call indexes which cells every word on the board passes through. After
+    * that, only the words with a path through a changed cell are checked
+    * again, and only paths that reach a changed cell are searched for new
+    * words.
+    * 
+    * @param positions The row-major positions of the cells to change.
+    * @param letterArray The new contents of each cell in positions.
+    * @throws IllegalArgumentException if either array is null, they have
+    *     different lengths, a position is not on the board, or a new tile is
+    *     null or empty.
+    * @throws IllegalStateException if loadLexicon or setBoard has not been called.
+    */
+   public void setCells(int[] positions, String[] letterArray) {
+      if (positions == null || letterArray == null || positions.length != letterArray.length) {
+         throw new IllegalArgumentException();
+      }
+   
+      if (lexicon == null || cellTile == null) {
+         throw new IllegalStateException();
+      }
+   
+      for (int i = 0; i < positions.length; i++) {
+         if (positions[i] < 0 || positions[i] >= cellTile.length
+               || letterArray[i] == null || letterArray[i].isEmpty()) {
+            throw new IllegalArgumentException();
          }
       }
+   
+      //Indexing the words of the board as it is before anything changes.
+      if (wordCells == null) {
+         indexWords(null, null);
+      }
+   
+      //Finding the cells that really change; later positions win.
+      BitSet changed = new BitSet(cellTile.length);
+      int[] newTile = Arrays.copyOf(cellTile, cellTile.length);
+      for (int i = 0; i < positions.length; i++) {
+         newTile[positions[i]] = tileCode(letterArray[i]);
+      }
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         if (newTile[cell] != cellTile[cell]) {
+            changed.set(cell);
+         }
+      }
+      if (changed.isEmpty()) {
+         return;
+      }
+   
+      //Only words with a path through a changed cell can disappear. Forgetting
+      //them for now; the ones that survive are found again below.
+      Set<String> affected = new HashSet<>();
+      for (int cell = changed.nextSetBit(0); cell >= 0; cell = changed.nextSetBit(cell + 1)) {
+         affected.addAll(cellWords.get(cell));
+      }
+      for (String word : affected) {
+         unindexWord(word);
+      }
+   
+      cellTile = newTile;
+      indexLetters();
+   
+      //Every new path, and so every new word, passes through a changed cell.
+      indexWords(changed, distancesTo(changed));
+   
+      //Picking up the paths of the affected words that avoid the changed cells.
+      int[] path = new int[cellTile.length];
+      long[] visited = newVisitedSet();
+      for (String word : affected) {
+         indexWordPaths(word, path, visited);
+      }
+   }
+
+   /**
+    * Returns the code of the given tile, giving it a new one if it has not been
+    * seen on this board before.
+    */
+   private int tileCode(String tile) {
+      Integer code = tileCodes.get(tile);
+      if (code == null) {
+         code = tiles.length;
+         tileCodes.put(tile, code);
+         tiles = Arrays.copyOf(tiles, code + 1);
+         tiles[code] = tile;
+         tileLetters = Arrays.copyOf(tileLetters, code + 1);
+         tileLetters[code] = tile.toCharArray();
+      }
+      return code;
+   }
+
+   /**
+    * Returns, for every cell, the fewest moves from it to one of the given
+    * cells. If the board has an empty tile, a move doesn't always add a letter,
+    * so every distance is reported as zero to turn off pruning by distance.
+    */
+   private int[] distancesTo(BitSet cells) {
+      int[] distance = new int[cellTile.length];
+      for (char[] letters : tileLetters) {
+         if (letters.length == 0) {
+            return distance;
+         }
+      }
+      Arrays.fill(distance, Integer.MAX_VALUE);
+      for (int target = cells.nextSetBit(0); target >= 0; target = cells.nextSetBit(target + 1)) {
+         for (int cell = 0; cell < cellTile.length; cell++) {
+            int moves = Math.max(Math.abs(cell / size - target / size),
+               Math.abs(cell % size - target % size));
+            distance[cell] = Math.min(distance[cell], moves);
+         }
+      }
+      return distance;
+   }
+
+   /**
+    * Builds the first-letter index of the cells and the letter counts of the
+    * board from the compiled tiles.
+    */
+   private void indexLetters() {
+      int[] counts = new int[OTHER_CHARS + 1];
+      int total = 0;
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         for (char c : tileLetters[cellTile[cell]]) {
+            counts[Math.min(c, OTHER_CHARS)]++;
+            total++;
+         }
+      }
+   
+      //Counting the cells under each first letter, then filing them in order.
+      int[] starts = new int[OTHER_CHARS + 2];
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         starts[firstLetterSlot(cell) + 1]++;
+      }
+      for (int slot = 0; slot <= OTHER_CHARS; slot++) {
+         starts[slot + 1] += starts[slot];
+      }
+      int[] filed = new int[cellTile.length];
+      int[] next = Arrays.copyOf(starts, OTHER_CHARS + 1);
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         filed[next[firstLetterSlot(cell)]++] = cell;
+      }
+   
+      letterCount = counts;
+      letterTotal = total;
+      startCellStart = starts;
+      startCells = filed;
+      neededScratch = new int[OTHER_CHARS];
+      pathScratch = new int[cellTile.length];
+      visitedScratch = newVisitedSet();
+   }
+
+   /**
+    * Returns the slot of the first-letter index that cell is filed under.
+    */
+   private int firstLetterSlot(int cell) {
+      char[] letters = tileLetters[cellTile[cell]];
+      return (letters.length == 0) ? OTHER_CHARS : Math.min(letters[0], OTHER_CHARS);
    }
 
     /**
@@ -92,9 +428,9 @@ public class WordSearchEngine implements WordSearchGame {
     */
    public String getBoard() {
       String output = "";
-      for (int i = 0; i < board.length; i++) {
-         for (int j = 0; j < board[i].length; j++) {
-            output += board[i][j] + " ";
+      for (int i = 0; i < size; i++) {
+         for (int j = 0; j < size; j++) {
+            output += tiles[cellTile[i * size + j]] + " ";
          }
          output += "\n"; //new line per row.
       }
@@ -113,7 +449,7 @@ public class WordSearchEngine implements WordSearchGame {
     * @throws IllegalStateException if loadLexicon has not been called.
     */
    public SortedSet<String> getAllScorableWords(int minimumWordLength) {
-      if (lexicon.isEmpty()) {
+      if (lexicon == null) {
          throw new IllegalStateException();
       }
       
@@ -121,82 +457,372 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalArgumentException();
       }
    
+      //returning empty set if min word length is greater than length of largest word in lexicon.
+      if (minimumWordLength > lexicon.getMaxWordLength()) {
+         return new TreeSet<>();
+      }
+   
+      if (!isSolved(minimumWordLength)) {
+         cacheSolvedWords(solve(minimumWordLength), minimumWordLength);
+      }
+      return copySolvedWords(minimumWordLength);
+   
+   }
+
+   /**
+    * Runs the depth-first search from every cell of the board on this thread.
+    * @param minWordLength is the minimum length of the words to keep.
+    * @return a new set of the scorable words.
+    */
+   private SortedSet<String> solve(int minWordLength) {
       //creating TreeSet of scorable words.
       SortedSet<String> scorableWords = new TreeSet<>();
    
-      //returning empty set if min word length is greater than length of largest word in lexicon.
-      int maxWordLength = lexicon.last().length();
-      if (minimumWordLength > maxWordLength) {
-         return scorableWords;
-      }
-      
-      memoizedWords = new HashMap<>();
+      //The word buffer and visited bits are shared by every start cell, since dfs
+      //always unmarks its cells on the way back out.
+      char[] word = new char[lexicon.getMaxWordLength()];
+      long[] visited = newVisitedSet();
    
       //looping through each cell of the board.
-      for (int i = 0; i < board.length; i++) {
-         for (int j = 0; j < board[i].length; j++) {
-            //making a visited variable starting with top left cell and performing dfs.
-            boolean[][] visited = new boolean[board.length][board[0].length];
-            dfs(i, j, "", visited, scorableWords, minimumWordLength);
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         dfs(cell, LexiconTrie.ROOT, word, 0, visited, scorableWords, minWordLength);
+      }
+      return scorableWords;
+   }
+
+   /**
+    * Returns true if the cached words of this board hold every word of at least
+    * minWordLength characters.
+    */
+   private boolean isSolved(int minWordLength) {
+      return solvedWords != null && solvedMinLength <= minWordLength;
+   }
+
+   /**
+    * Remembers the words found for this board with the given minimum length.
+    */
+   private void cacheSolvedWords(SortedSet<String> words, int minWordLength) {
+      solvedWords = words;
+      solvedMinLength = minWordLength;
+   }
+
+   /**
+    * Returns a copy of the cached words that have at least minWordLength
+    * characters, so callers can't change the cache.
+    */
+   private SortedSet<String> copySolvedWords(int minWordLength) {
+      if (minWordLength == solvedMinLength) {
+         return new TreeSet<>(solvedWords);
+      }
+      SortedSet<String> words = new TreeSet<>();
+      for (String word : solvedWords) {
+         if (word.length() >= minWordLength) {
+            words.add(word);
          }
       }
-    
+      return words;
+   }
+
+   /**
+    * Retrieves the same words as getAllScorableWords, but splits the start cells
+    * of the board into fork/join tasks so that large boards are solved on every
+    * available core. Each task keeps its own visited array and result set, and
+    * the sets are merged as the tasks join.
+    * 
+    * @param minimumWordLength The minimum allowed length (i.e., number of
+    *     characters) for any word found on the board.
+    * @return java.util.SortedSet which contains all the words of minimum length
+    *     found on the game board and in the lexicon.
+    * @throws IllegalArgumentException if minimumWordLength < 1
+    * @throws IllegalStateException if loadLexicon has not been called.
+    */
+   public SortedSet<String> getAllScorableWordsParallel(int minimumWordLength) {
+      if (lexicon == null) {
+         throw new IllegalStateException();
+      }
+      
+      if (minimumWordLength < 1) {
+         throw new IllegalArgumentException();
+      }
    
-      return scorableWords;
+      //returning empty set if min word length is greater than length of largest word in lexicon.
+      if (minimumWordLength > lexicon.getMaxWordLength()) {
+         return new TreeSet<>();
+      }
    
+      if (!isSolved(minimumWordLength)) {
+         SolveTask task = new SolveTask(0, cellTile.length, minimumWordLength);
+         cacheSolvedWords(ForkJoinPool.commonPool().invoke(task), minimumWordLength);
+      }
+      return copySolvedWords(minimumWordLength);
+   }
+
+   /**
+    * Fork/join task that finds the scorable words starting from the cells
+    * first (inclusive) through last (exclusive), numbered in row-major order.
+    */
+   private class SolveTask extends RecursiveTask<SortedSet<String>> {
+   
+      private static final long serialVersionUID = 1L;
+   
+      private final int first;
+      private final int last;
+      private final int minWordLength;
+   
+      SolveTask(int first, int last, int minWordLength) {
+         this.first = first;
+         this.last = last;
+         this.minWordLength = minWordLength;
+      }
+   
+      @Override
+      protected SortedSet<String> compute() {
+         //Splitting the block in half until it is small enough to solve directly.
+         if (last - first > MIN_CELLS_PER_TASK) {
+            int middle = first + (last - first) / 2;
+            SolveTask left = new SolveTask(first, middle, minWordLength);
+            left.fork();
+            SortedSet<String> words = new SolveTask(middle, last, minWordLength).compute();
+            words.addAll(left.join());
+            return words;
+         }
+      
+         SortedSet<String> words = new TreeSet<>();
+         //One buffer and visited set serve every start cell, since dfs always unmarks its cells.
+         char[] word = new char[lexicon.getMaxWordLength()];
+         long[] visited = newVisitedSet();
+         for (int cell = first; cell < last; cell++) {
+            dfs(cell, LexiconTrie.ROOT, word, 0, visited, words, minWordLength);
+         }
+         return words;
+      }
+   }
+
+   /**
+    * Returns an empty visited set with one bit per board cell.
+    */
+   private long[] newVisitedSet() {
+      return new long[(cellTile.length + 63) / 64];
    }
 
    /**
     * Depth-First-Search method that starts at the given cell, which recursively
     * searches for words and then adds them into the scorableWords TreeSet if they
-    * meet the length requirement.
-    * @param row is the row of the current cell.
-    * @param col is the column of the current cell.
-    * @param visited to determine what has been visited or not.
+    * meet the length requirement. The lexicon trie is walked alongside the board,
+    * so node is always the trie node for the letters in word. The current word is
+    * kept in a reused buffer and only turned into a String when it is scorable.
+    * @param cell is the row-major number of the current cell.
+    * @param node is the trie node reached by the letters of word.
+    * @param word is the buffer holding the letters of the path so far.
+    * @param length is the number of letters in word.
+    * @param visited has the bit for each cell on the path set.
     * @param scorableWords is the TreeSet where we put scorable words.
     */
-   private void dfs(int row, int col, String word, boolean[][] visited, 
+   private void dfs(int cell, int node, char[] word, int length, long[] visited, 
        SortedSet<String> scorableWords, int minWordLength) {
      
-     //Checking to make sure the rows and columns are in-bounds.
-      if (row < 0 || row >= board.length || col < 0 || col >= board[0].length || visited[row][col]) {
+      long bit = 1L << cell; // shift uses the low six bits of cell.
+      if ((visited[cell >>> 6] & bit) != 0) {
          return;
-      }  
+      }
        
-      //Marking the cell as visited (true = visited).
-      visited[row][col] = true;
-   
-      //Adding the cell's letter to the current word.
-      String fullWord = word + board[row][col];
-   
-      //Check if the full word meets min length requirement.
-      if (fullWord.length() >= minWordLength) {
-        //Check if the full word is in the lexicon.
-         if (lexicon.contains(fullWord)) {
-            //Add the full word to the set of scorable words.
-            scorableWords.add(fullWord);
+      //Stepping down the trie by the cell's letters and copying them into the
+      //buffer; if no word starts with the new prefix, there is nothing left to
+      //find down this path. The trie is never deeper than the buffer is long.
+      char[] letters = tileLetters[cellTile[cell]];
+      for (int i = 0; i < letters.length; i++) {
+         char c = letters[i];
+         node = lexicon.child(node, c);
+         if (node == LexiconTrie.NONE) {
+            return;
          }
-        //Memoize the word.
-         memoizedWords.put(fullWord, lexicon.contains(fullWord));
+         word[length++] = c;
+      }
+   
+      //Marking the cell as visited.
+      visited[cell >>> 6] |= bit;
+   
+      //Check if the full word meets min length requirement and is in the lexicon.
+      if (length >= minWordLength && lexicon.isWord(node)) {
+         //Add the full word to the set of scorable words.
+         scorableWords.add(new String(word, 0, length));
       }
       
-      //Checking if prefix is in lexicon; if not, skipping.
-      if (isPrefix(fullWord)) {
-         //Recursively call dfs on all neighboring cells.
-         int[] rowOffsets = {-1, -1, -1, 0, 0, 1, 1, 1};
-         int[] colOffsets = {-1, 0, 1, -1, 1, -1, 0, 1};
-         for (int i = 0; i < 8; i++) {
-            dfs(row + rowOffsets[i], col + colOffsets[i], fullWord, visited, scorableWords, minWordLength);
-         }  
-      } 
+      //Recursively call dfs on all neighboring cells.
+      for (int i = neighborStart[cell]; i < neighborStart[cell + 1]; i++) {
+         dfs(neighbors[i], node, word, length, visited, scorableWords, minWordLength);
+      }  
       
     //Resetting the cell as unvisited.
-      visited[row][col] = false;
+      visited[cell >>> 6] &= ~bit;
+   }
+   
+   /**
+    * Searches the board for words and records every path to each of them in the
+    * index used by setCells. With changed set to null the whole board is
+    * indexed; otherwise only paths through a changed cell are followed.
+    * @param changed is the set of changed cells, or null.
+    * @param distance is the fewest moves from each cell to a changed cell.
+    */
+   private void indexWords(BitSet changed, int[] distance) {
+      if (changed == null) {
+         wordCells = new HashMap<>();
+         cellWords = new ArrayList<>();
+         for (int cell = 0; cell < cellTile.length; cell++) {
+            cellWords.add(new HashSet<>());
+         }
+         cacheSolvedWords(new TreeSet<>(), 1);
+      }
+   
+      char[] word = new char[lexicon.getMaxWordLength()];
+      int[] path = new int[cellTile.length];
+      long[] visited = newVisitedSet();
+      for (int cell = 0; cell < cellTile.length; cell++) {
+         indexDfs(cell, LexiconTrie.ROOT, word, 0, path, 0, visited, changed == null,
+            changed, distance);
+      }
    }
 
-   private boolean isPrefix(String prefix) {
-    //Check if prefix is in lexicon or if there is a word in the lexicon that starts with the prefix
-      return lexicon.contains(prefix) || !lexicon.subSet(prefix, prefix + Character.MAX_VALUE).isEmpty();
+   /**
+    * Depth-First-Search used by indexWords. It follows the same steps as dfs,
+    * but also keeps the cells of the path so they can be recorded with each
+    * word. Until the path has touched a changed cell, it is cut off as soon as
+    * the longest word left below node is too short to reach one, since every
+    * move adds at least one letter.
+    * @param cell is the row-major number of the current cell.
+    * @param node is the trie node reached by the letters of word.
+    * @param word is the buffer holding the letters of the path so far.
+    * @param length is the number of letters in word.
+    * @param path holds the cells of the path so far.
+    * @param depth is the number of cells in path.
+    * @param visited has the bit for each cell on the path set.
+    * @param touched is true once the path has gone through a changed cell.
+    * @param changed is the set of changed cells.
+    * @param distance is the fewest moves from each cell to a changed cell.
+    */
+   private void indexDfs(int cell, int node, char[] word, int length, int[] path, int depth,
+       long[] visited, boolean touched, BitSet changed, int[] distance) {
+      long bit = 1L << cell; // shift uses the low six bits of cell.
+      if ((visited[cell >>> 6] & bit) != 0) {
+         return;
+      }
+   
+      char[] letters = tileLetters[cellTile[cell]];
+      for (int i = 0; i < letters.length; i++) {
+         char c = letters[i];
+         node = lexicon.child(node, c);
+         if (node == LexiconTrie.NONE) {
+            return;
+         }
+         word[length++] = c;
+      }
+   
+      if (!touched) {
+         if (changed.get(cell)) {
+            touched = true;
+         }
+         else if (lexicon.getHeight(node) < distance[cell]) {
+            return; //no word below node is long enough to reach a changed cell.
+         }
+      }
+   
+      visited[cell >>> 6] |= bit;
+      path[depth++] = cell;
+   
+      if (touched && length > 0 && lexicon.isWord(node)) {
+         indexPath(new String(word, 0, length), path, depth);
+      }
+   
+      for (int i = neighborStart[cell]; i < neighborStart[cell + 1]; i++) {
+         indexDfs(neighbors[i], node, word, length, path, depth, visited, touched,
+            changed, distance);
+      }
+   
+      visited[cell >>> 6] &= ~bit;
+   }
+
+   /**
+    * Finds every path that spells word on the board and records it in the
+    * index used by setCells.
+    */
+   private void indexWordPaths(String word, int[] path, long[] visited) {
+      if (word.isEmpty() || !hasLettersFor(word)) {
+         return;
+      }
+      int slot = Math.min(word.charAt(0), OTHER_CHARS);
+      for (int i = startCellStart[slot]; i < startCellStart[slot + 1]; i++) {
+         indexWordPaths(word, 0, startCells[i], path, 0, visited);
+      }
+   }
+
+   /**
+    * Recursive helper of indexWordPaths. Works like search, but keeps going
+    * after a match so that every path is recorded.
+    * @param word is the word to find.
+    * @param index is the position in word that cell must match.
+    * @param cell is the row-major number of the cell.
+    * @param path holds the cells of the path so far.
+    * @param depth is the number of cells in path.
+    * @param visited has the bit for each cell on the path set.
+    */
+   private void indexWordPaths(String word, int index, int cell, int[] path, int depth,
+       long[] visited) {
+      long bit = 1L << cell; // shift uses the low six bits of cell.
+      if ((visited[cell >>> 6] & bit) != 0) {
+         return;
+      }
+   
+      char[] letters = tileLetters[cellTile[cell]];
+      if (letters.length > word.length() - index) {
+         return;
+      }
+      for (int i = 0; i < letters.length; i++) {
+         if (letters[i] != word.charAt(index + i)) {
+            return;
+         }
+      }
+   
+      path[depth++] = cell;
+      int next = index + letters.length;
+      if (next == word.length()) {
+         indexPath(word, path, depth);
+         return;
+      }
+   
+      visited[cell >>> 6] |= bit;
+      for (int i = neighborStart[cell]; i < neighborStart[cell + 1]; i++) {
+         indexWordPaths(word, next, neighbors[i], path, depth, visited);
+      }
+      visited[cell >>> 6] &= ~bit;
+   }
+
+   /**
+    * Records that word can be spelled along the first depth cells of path.
+    */
+   private void indexPath(String word, int[] path, int depth) {
+      BitSet cells = wordCells.get(word);
+      if (cells == null) {
+         cells = new BitSet(cellTile.length);
+         wordCells.put(word, cells);
+         solvedWords.add(word);
+      }
+      for (int i = 0; i < depth; i++) {
+         if (!cells.get(path[i])) {
+            cells.set(path[i]);
+            cellWords.get(path[i]).add(word);
+         }
+      }
+   }
+
+   /**
+    * Removes word and all of its paths from the index used by setCells.
+    */
+   private void unindexWord(String word) {
+      BitSet cells = wordCells.remove(word);
+      for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+         cellWords.get(cell).remove(word);
+      }
+      solvedWords.remove(word);
    }
    
    /**
@@ -221,12 +847,19 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalStateException();
       }
    
-      SortedSet<String> scorableWords = getAllScorableWords(minimumWordLength);
+      //Solving the board only if no earlier call has, and reading the cached
+      //words directly instead of copying them.
+      if (minimumWordLength > lexicon.getMaxWordLength()) {
+         return 0;
+      }
+      if (!isSolved(minimumWordLength)) {
+         cacheSolvedWords(solve(minimumWordLength), minimumWordLength);
+      }
    
       int total = 0;
    
       for (String word : words) {
-         if (scorableWords.contains(word)) {
+         if (word.length() >= minimumWordLength && solvedWords.contains(word)) {
             int score = 1 + Math.max(0, word.length() - minimumWordLength); 
             total += score;
          }
@@ -251,7 +884,7 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalStateException();
       }
    
-      //Returns the boolean of whether the TreeSet contains the word.
+      //Returns the boolean of whether the trie contains the word.
       return lexicon.contains(wordToCheck.toUpperCase());
    }
 
@@ -270,24 +903,12 @@ public class WordSearchEngine implements WordSearchGame {
       }
    
       if (lexicon == null) {
-         throw new IllegalArgumentException();
-      }
-   
-      //Creates tailSet using prefix which has all words that equal or come after
-      //the prefix in alphabetical order.
-      SortedSet<String> tailSet = lexicon.tailSet(prefixToCheck.toUpperCase());
-   
-      if (tailSet.isEmpty()) {
-         return false; //There are no words in the lexicon with the prefix. 
+         throw new IllegalStateException();
       }
    
-      //Creating an instance of the first string in the tailSet to see if starts with
-      //the prefix. 
-      String firstString = tailSet.first();
-   
-      //Returns boolean to see if the first string starts with the prefix. If it does,
-      //that means that there is a word with the given prefix.
-      return firstString.startsWith(prefixToCheck.toUpperCase());
+      //Every node in the trie is the prefix of at least one word, so the prefix
+      //is valid exactly when we can walk all of its letters.
+      return lexicon.hasPrefix(prefixToCheck.toUpperCase());
       
    }
 
@@ -313,75 +934,122 @@ public class WordSearchEngine implements WordSearchGame {
          throw new IllegalStateException();
       }
    
-      boolean[][] visited = new boolean[board.length][board.length];
-   
-      List<Integer> path = new ArrayList<>();
+      //Rejecting words that need more letters than the board has.
+      if (wordToCheck.length() == 0 || !hasLettersFor(wordToCheck)) {
+         return new ArrayList<Integer>();
+      }
    
-      //Looping through each cell to find the wordToCheck starting at the first cell
-      for (int i = 0; i < board.length; i++) {
-         for (int j = 0; j < board.length; j++) {
-            //checking if the cell matches the first letter to keep searching for
-            //remaining letters.
-            if (board[i][j].equals(Character.toString(wordToCheck.charAt(0)))) {
-               //searching for the word at that position.
-               if (search(wordToCheck, visited, i, j, path)) {
-                  return path;
-               }
+      //Looping through only the cells whose tile starts with the first letter.
+      char first = wordToCheck.charAt(0);
+      int slot = Math.min(first, OTHER_CHARS);
+      for (int i = startCellStart[slot]; i < startCellStart[slot + 1]; i++) {
+         //searching for the word at that position.
+         int depth = search(wordToCheck, 0, startCells[i], visitedScratch, pathScratch, 0);
+         if (depth > 0) {
+            List<Integer> path = new ArrayList<>(depth);
+            for (int j = 0; j < depth; j++) {
+               path.add(pathScratch[j]);
+               //Clearing the marks the successful search left behind.
+               visitedScratch[pathScratch[j] >>> 6] &= ~(1L << pathScratch[j]);
             }
+            return path;
          }
       }
       return new ArrayList<Integer>();
    }
 
    /**
-    * Search method that recursively searches for the wordToCheck starting at the specified
-    * cell.
-    * @param wordToCheck is the word to search for.
-    * @param visited is the boolean value determining whether or not the cell has been visited.
-    * @param row is the row of the cell.
-    * @param col is the column of the cell.
-    * @param path A list of integers that show the path to find the word.
-    * @return true if word is found; false if not.
+    * Returns false if word is longer than all the board's tiles put together,
+    * or uses some ASCII character more times than it appears on the board.
+    * A true result only means the word might be on the board. The length and
+    * the first and last letters are checked in constant time before the
+    * letters are counted, which takes one pass over the word.
     */
-   private boolean search(String wordToCheck, boolean[][] visited, int row, int col, 
-       List<Integer> path) {
-      //if word to check has length of 0, return true
-      if (wordToCheck.length() == 0) {
-         return true;
+   private boolean hasLettersFor(String word) {
+      int length = word.length();
+      if (length > letterTotal) {
+         return false;
       }
-   
-      //returning false if cell has been visited already or if cell isn't on board
-      if (row < 0 || col < 0 || row >= board.length || col >= board.length || visited[row][col]) {
+      int slot = Math.min(word.charAt(0), OTHER_CHARS);
+      if (startCellStart[slot] == startCellStart[slot + 1]) {
+         return false; //no tile starts with the first letter.
+      }
+      char last = word.charAt(length - 1);
+      if (last < OTHER_CHARS && letterCount[last] == 0) {
          return false;
       }
    
-      //returning false if cell's letter does not match first letter of word.
-      if (!board[row][col].equals(Character.toString(wordToCheck.charAt(0)))) {
-         return false;
+      //Counting into the shared scratch array, then zeroing what was counted.
+      int[] needed = neededScratch;
+      int i = 0;
+      boolean enough = true;
+      for (; i < length; i++) {
+         char c = word.charAt(i);
+         if (c < OTHER_CHARS && ++needed[c] > letterCount[c]) {
+            enough = false;
+            i++;
+            break;
+         }
+      }
+      while (i > 0) {
+         char c = word.charAt(--i);
+         if (c < OTHER_CHARS) {
+            needed[c] = 0;
+         }
+      }
+      return enough;
+   }
+
+   /**
+    * Search method that recursively searches for the rest of wordToCheck, from
+    * index on, starting at the specified cell.
+    * @param wordToCheck is the word to search for.
+    * @param index is the position in wordToCheck that cell must match.
+    * @param cell is the row-major number of the cell.
+    * @param visited has the bit for each cell on the path set.
+    * @param path holds the cells of the path so far.
+    * @param depth is the number of cells in path.
+    * @return the number of cells in the path if word is found, with the bits
+    *     of all but the last left set in visited; -1 if not.
+    */
+   private int search(String wordToCheck, int index, int cell, long[] visited,
+       int[] path, int depth) {
+      //returning -1 if cell has been visited already.
+      long bit = 1L << cell; // shift uses the low six bits of cell.
+      if ((visited[cell >>> 6] & bit) != 0) {
+         return -1;
+      }
+   
+      //returning -1 if cell's letters do not match the word at index.
+      char[] letters = tileLetters[cellTile[cell]];
+      if (letters.length > wordToCheck.length() - index) {
+         return -1;
+      }
+      for (int i = 0; i < letters.length; i++) {
+         if (letters[i] != wordToCheck.charAt(index + i)) {
+            return -1;
+         }
       }
    
       //adding cell to the path and marking as visited.
-      int position = row * board.length + col; //position is 0 at top left and N^2 - 1 at bottom right.
-      path.add(position);
-      visited[row][col] = true;
+      path[depth++] = cell;
+      int next = index + letters.length;
+      if (next == wordToCheck.length()) {
+         return depth; //the whole word has been matched.
+      }
+      visited[cell >>> 6] |= bit;
    
       //Searching for neighbor cells using recursive approach.
-      boolean found = search(wordToCheck.substring(1), visited, row + 1, col, path) ||
-                     search(wordToCheck.substring(1), visited, row + 1, col + 1, path) ||
-                     search(wordToCheck.substring(1), visited, row + 1, col - 1, path) ||
-                     search(wordToCheck.substring(1), visited, row - 1, col, path) ||
-                     search(wordToCheck.substring(1), visited, row - 1, col - 1, path) ||
-                     search(wordToCheck.substring(1), visited, row - 1, col + 1, path) ||
-                     search(wordToCheck.substring(1), visited, row, col + 1, path) ||
-                     search(wordToCheck.substring(1), visited, row, col - 1, path);
-   
-      //If word can't be found in neighboring cells, go back.
-      if (!found) {
-         visited[row][col] = false;
-         path.remove(path.size() - 1);
+      for (int i = neighborStart[cell]; i < neighborStart[cell + 1]; i++) {
+         int found = search(wordToCheck, next, neighbors[i], visited, path, depth);
+         if (found > 0) {
+            return found;
+         }
       }
    
-      return found;
+      //If word can't be found in neighboring cells, go back.
+      visited[cell >>> 6] &= ~bit;
+      return -1;
    }
    
    public static void main (String[] args) {
@@ -12,4 +12,13 @@ public class WordSearchGameFactory {
       return new WordSearchEngine();
    }
 
+   /**
+    * Returns an instance of a class that implements the WordSearchGame
+    * interface and plays with the given lexicon. The lexicon is shared, not
+    * copied, so a server can keep one in memory for every game it runs.
+    */
+   public static WordSearchGame createGame(LexiconTrie lexicon) {
+      return new WordSearchEngine(lexicon);
+   }
+
 }
@@ -1,23 +1,43 @@
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import java.util.Arrays;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import java.util.stream.Collectors;
 
 /**
  * Provides an implementation of the WordLadderGame interface. 
  *
+ * The lexicon never changes after construction, its indexes are built once
+ * under a lock the first time they are needed, and the cache of
+ * shortest-path trees is only touched while holding its lock, so one Doublets
+ * can answer queries from several threads at once. Trees for hot start words
+ * are built on a background thread, never inside a query.
+ *
  * @author Demarco Guajardo (dag0047@auburn.edu)
  */
 public class Doublets implements WordLadderGame {
@@ -34,7 +54,84 @@ public class Doublets implements WordLadderGame {
    /////////////////////////////////////////////////////////////////////////////
    
    
-   private SortedSet<String> lexicon = new TreeSet<>();
+   // Ordered by length and then alphabetically, with no repeats. This is the
+   // order of the word graph's ids, so the graph shares this array. The words
+   // of length L are lexicon[lengthStart[L]] up to lexicon[lengthStart[L + 1] - 1],
+   // and isWord binary searches that block.
+   private String[] lexicon = new String[0];
+   private int[] lengthStart = new int[1];
+
+   // Groups the words that are the same except at one position, keyed by the
+   // word with that position replaced by WILDCARD ("c*t" -> [cat, cot, cut]).
+   // The neighbors of a word are then the other words in its buckets. Only
+   // patterns shared by at least two words are kept, since a bucket holding
+   // just one word gives it no neighbors. Built with the components on first
+   // use, and dropped by buildWordGraph once the graph holds the same edges.
+   private volatile Map<String, List<String>> buckets;
+
+   private static final char WILDCARD = '*';
+   private static final int HASH_BASE = 31;
+
+   // The whole one-letter-change graph with int word ids, built on request by
+   // buildWordGraph. While it exists, getMinLadder searches it instead.
+   private volatile WordGraph graph;
+
+   // The connected component of every word in the one-letter-change graph, by
+   // its index in the lexicon, and the number of words in each component. Two
+   // words have a ladder between them exactly when they are in the same
+   // component. Both are built with the buckets the first time any of them is
+   // needed, which is most of the cost of loading a word list, so a Doublets
+   // that only checks words never pays for them. componentSize is written
+   // last and is null until then.
+   private int[] componentOf;
+   private volatile int[] componentSize;
+
+   // Shortest-path trees of hot start words for the String search, which only
+   // runs while there is no word graph, most recently used last. Each tree
+   // maps every word reachable from its start to that word's node, so a ladder
+   // is read off by following prev links. The trees together hold at most
+   // MAX_CACHED_TREE_WORDS words; the least recently used trees go first.
+   // Both maps reorder themselves even on get, so pathTrees' lock guards them
+   // and cachedTreeWords.
+   private LinkedHashMap<String, Map<String, Node>> pathTrees =
+      new LinkedHashMap<>(16, 0.75f, true);
+   private int cachedTreeWords;
+   private static final int MAX_CACHED_TREE_WORDS = 1_000_000;
+
+   // How many ladders have been asked for from each recent start word without
+   // a cached tree. At HOT_START_QUERIES the tree is built in the background;
+   // until it is cached, queries keep using the targeted search. Only the most
+   // recent MAX_SEEN_STARTS are remembered.
+   private Map<String, Integer> seenStarts =
+      new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_SEEN_STARTS;
+         }
+      };
+   private static final int MAX_SEEN_STARTS = 1024;
+   private static final int HOT_START_QUERIES = 8;
+
+   // Tree builds in progress, so that every caller asking for the same start
+   // word at once waits on one build instead of starting another.
+   private final Map<String, CompletableFuture<Map<String, Node>>> treeBuilds =
+      new ConcurrentHashMap<>();
+
+   // Builds trees for hot start words off the query path. Its one daemon thread
+   // is shared by every Doublets and never keeps the JVM alive.
+   private static final Executor TREE_BUILDER = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "Doublets path trees");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   // How long the constructor took to read the words, and how long the
+   // neighbor and component indexes took to build once they were needed.
+   private long loadTimeNanos;
+   private long indexTimeNanos;
+
+   // Words whose neighbors were generated by the most recent ladder search.
+   private volatile int lastNodesExpanded;
 
 
    /**
@@ -44,27 +141,421 @@ public class Doublets implements WordLadderGame {
     * stored in the lexicon.
     */
    public Doublets(InputStream in) {
+      long start = System.nanoTime();
       try {
-         //////////////////////////////////////
-         // INSTANTIATE lexicon OBJECT HERE  //
-         //////////////////////////////////////
-         
-         Scanner s =
-            new Scanner(new BufferedReader(new InputStreamReader(in)));
-         while (s.hasNext()) {
-            String str = s.next().toLowerCase();
-            /////////////////////////////////////////////////////////////
-            // INSERT CODE HERE TO APPROPRIATELY STORE str IN lexicon. //
-            /////////////////////////////////////////////////////////////
-            lexicon.add(str);
-            s.nextLine();
-         }
+         //Reading the raw bytes in one go and splitting them into lines
+         //ourselves, which is far cheaper than Scanner's regular expressions.
+         loadLexicon(ByteBuffer.wrap(in.readAllBytes()));
          in.close();
       }
-      catch (java.io.IOException e) {
+      catch (IOException e) {
          System.err.println("Error reading from InputStream.");
          System.exit(1);
       }
+      
+      loadTimeNanos = System.nanoTime() - start;
+   }
+   
+   /**
+    * Instantiates a new instance of Doublets with the lexicon populated with
+    * the strings in the given file, formatted as for the InputStream
+    * constructor. The file is memory mapped and read in place instead of
+    * being copied through a stream.
+    */
+   public Doublets(Path file) {
+      long start = System.nanoTime();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         loadLexicon(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+      catch (IOException e) {
+         System.err.println("Error reading from " + file + ".");
+         System.exit(1);
+      }
+      
+      loadTimeNanos = System.nanoTime() - start;
+   }
+   
+   /**
+    * Returns how many milliseconds the constructor took to read the word
+    * list. The neighbor and component indexes are built on first use and are
+    * not included; see getIndexTimeMillis.
+    *
+    * @return the load time in milliseconds
+    */
+   public long getLoadTimeMillis() {
+      return loadTimeNanos / 1_000_000;
+   }
+   
+   /**
+    * Returns how many milliseconds it took to build the neighbor and
+    * component indexes, or 0 if nothing has needed them yet.
+    *
+    * @return the index build time in milliseconds
+    */
+   public long getIndexTimeMillis() {
+      return indexTimeNanos / 1_000_000;
+   }
+   
+   /**
+    * Builds the buckets and components unless they have been built already.
+    */
+   private void ensureIndexes() {
+      if (componentSize == null) {
+         buildIndexes();
+      }
+   }
+   
+   /**
+    * Builds the indexes over the lexicon and records how long that took.
+    */
+   private synchronized void buildIndexes() {
+      if (componentSize != null) {
+         return;
+      }
+      long start = System.nanoTime();
+      String[] words = lexicon;
+      int[] parent = new int[words.length];
+      for (int id = 0; id < parent.length; id++) {
+         parent[id] = id;
+      }
+      buildBuckets(words, parent);
+      buildComponents(words, parent);
+      indexTimeNanos = System.nanoTime() - start;
+   }
+   
+   /**
+    * Fills the lexicon with the first string on each line of the given bytes,
+    * in lower case. Word lists usually come sorted already, so the sort is
+    * skipped when they do, and the sorted words are then grouped by length
+    * in one pass.
+    */
+   private void loadLexicon(ByteBuffer bytes) {
+      List<String> read = new ArrayList<>();
+      int limit = bytes.limit();
+      int i = bytes.position();
+      while (i < limit) {
+         //Skipping whitespace, including blank lines, before a line's first word.
+         if (isSpace(bytes.get(i))) {
+            i++;
+            continue;
+         }
+         
+         int begin = i;
+         boolean ascii = true;
+         while (i < limit && !isSpace(bytes.get(i))) {
+            ascii &= bytes.get(i) >= 0;
+            i++;
+         }
+         read.add(ascii ? lowerCaseAscii(bytes, begin, i) : lowerCaseUtf8(bytes, begin, i));
+         
+         //Skipping the rest of the line.
+         while (i < limit && bytes.get(i) != '\n') {
+            i++;
+         }
+      }
+      
+      String[] words = read.toArray(new String[0]);
+      if (!isStrictlyAscending(words)) {
+         Arrays.sort(words);
+         words = withoutDuplicates(words);
+      }
+      orderByLength(words);
+   }
+   
+   /**
+    * Returns true if b is an ASCII whitespace character.
+    */
+   private static boolean isSpace(byte b) {
+      return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+   }
+   
+   /**
+    * Returns the ASCII bytes from begin up to end in lower case.
+    */
+   private static String lowerCaseAscii(ByteBuffer bytes, int begin, int end) {
+      char[] letters = new char[end - begin];
+      for (int i = 0; i < letters.length; i++) {
+         byte b = bytes.get(begin + i);
+         letters[i] = (char) ((b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b);
+      }
+      return new String(letters);
+   }
+   
+   /**
+    * Returns the UTF-8 bytes from begin up to end, decoded and in lower case.
+    */
+   private static String lowerCaseUtf8(ByteBuffer bytes, int begin, int end) {
+      byte[] raw = new byte[end - begin];
+      for (int i = 0; i < raw.length; i++) {
+         raw[i] = bytes.get(begin + i);
+      }
+      return new String(raw, StandardCharsets.UTF_8).toLowerCase();
+   }
+   
+   /**
+    * Returns true if every word is less than the word after it.
+    */
+   private static boolean isStrictlyAscending(String[] words) {
+      for (int i = 1; i < words.length; i++) {
+         if (words[i - 1].compareTo(words[i]) >= 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * Returns the sorted words with repeats removed.
+    */
+   private static String[] withoutDuplicates(String[] sorted) {
+      int count = 0;
+      for (int i = 0; i < sorted.length; i++) {
+         if (count == 0 || !sorted[i].equals(sorted[count - 1])) {
+            sorted[count++] = sorted[i];
+         }
+      }
+      return Arrays.copyOf(sorted, count);
+   }
+   
+   /**
+    * Fills the lexicon with the sorted words ordered by length, keeping
+    * alphabetical order among words of the same length, and records where
+    * each length starts. Takes one counting pass per step.
+    */
+   private void orderByLength(String[] sorted) {
+      int longest = 0;
+      for (String word : sorted) {
+         longest = Math.max(longest, word.length());
+      }
+      int[] next = new int[longest + 2];
+      for (String word : sorted) {
+         next[word.length() + 1]++;
+      }
+      for (int length = 1; length < next.length; length++) {
+         next[length] += next[length - 1];
+      }
+      lengthStart = Arrays.copyOf(next, next.length);
+      String[] ordered = new String[sorted.length];
+      for (String word : sorted) {
+         ordered[next[word.length()]++] = word;
+      }
+      lexicon = ordered;
+   }
+   
+   /**
+    * Returns the index of word in the lexicon, or -1 if it is not a word.
+    * Only the block of words with the same length is searched.
+    *
+    * @param  word  the word to find, in lower case
+    * @return       its index in the lexicon, or -1
+    */
+   private int indexOf(String word) {
+      int length = word.length();
+      if (length + 1 >= lengthStart.length) {
+         return -1;
+      }
+      int index = Arrays.binarySearch(lexicon, lengthStart[length], lengthStart[length + 1], word);
+      return (index < 0) ? -1 : index;
+   }
+   
+   /**
+    * Numbers the connected components of the word graph and counts their
+    * words, given the union-find forest joined by buildBuckets. Every bucket is
+    * a group of mutual neighbors, so joining each bucket's words is enough to
+    * join every edge.
+    */
+   private void buildComponents(String[] words, int[] parent) {
+      int[] component = new int[words.length];
+      int[] number = new int[parent.length];
+      Arrays.fill(number, -1);
+      int count = 0;
+      for (int id = 0; id < parent.length; id++) {
+         int root = find(parent, id);
+         if (number[root] == -1) {
+            number[root] = count++;
+         }
+      }
+      int[] size = new int[count];
+      for (int id = 0; id < words.length; id++) {
+         component[id] = number[find(parent, id)];
+         size[component[id]]++;
+      }
+      componentOf = component;
+      componentSize = size;
+   }
+   
+   /**
+    * Returns the root of id's set in the union-find forest, halving the path
+    * along the way.
+    */
+   private static int find(int[] parent, int id) {
+      while (parent[id] != id) {
+         parent[id] = parent[parent[id]];
+         id = parent[id];
+      }
+      return id;
+   }
+   
+   /**
+    * Returns the number of words that can be reached from the given word by
+    * some ladder, counting the word itself. Words in the same component are
+    * exactly the pairs that have a ladder between them.
+    *
+    * @param  word  the given word
+    * @return       the size of word's connected component, or 0 if word is
+    *                   not a word
+    */
+   public int getComponentSize(String word) {
+      int index = indexOf(word.toLowerCase());
+      if (index == -1) {
+         return 0;
+      }
+      ensureIndexes();
+      return componentSize[componentOf[index]];
+   }
+   
+   /**
+    * Returns true if the two words are in the same connected component, and so
+    * have a word ladder between them. Both must already be in lower case.
+    */
+   boolean isConnected(String start, String end) {
+      ensureIndexes();
+      return componentOf[indexOf(start)] == componentOf[indexOf(end)];
+   }
+   
+   /**
+    * Files every word in the lexicon under each of its wildcard patterns.
+    * Walking the lexicon in order keeps every bucket sorted. Words sharing a
+    * pattern are also joined in the union-find forest parent, which is indexed
+    * like words.
+    *
+    * Most patterns belong to a single word, so the patterns are first grouped
+    * in an open-addressing table of ints, without building a String or a List
+    * for each one, and only the groups of two or more words become buckets.
+    */
+   private void buildBuckets(String[] words, int[] parent) {
+      //Numbering the patterns: word w's patterns are firstPattern[w] onward.
+      int[] firstPattern = new int[words.length + 1];
+      int longest = 0;
+      for (int w = 0; w < words.length; w++) {
+         firstPattern[w + 1] = firstPattern[w] + words[w].length();
+         longest = Math.max(longest, words[w].length());
+      }
+      int patterns = firstPattern[words.length];
+      
+      // power[k] is HASH_BASE to the k, for swapping one letter out of a hash.
+      int[] power = new int[longest + 1];
+      power[0] = 1;
+      for (int k = 1; k <= longest; k++) {
+         power[k] = power[k - 1] * HASH_BASE;
+      }
+      
+      int[] wordOf = new int[patterns];
+      // The first pattern equal to each pattern, and the size of each group.
+      int[] groupOf = new int[patterns];
+      int[] groupSize = new int[patterns];
+      // Each slot holds a pattern's hash in its high half and the pattern's
+      // number plus one in its low half, or 0 if the slot is empty.
+      long[] table = new long[Math.max(16, Integer.highestOneBit(patterns) * 2)];
+      int mask = table.length - 1;
+      int shift = Integer.numberOfLeadingZeros(mask);
+      int shared = 0;
+      
+      for (int w = 0; w < words.length; w++) {
+         String word = words[w];
+         int hash = 0;
+         for (int i = 0; i < word.length(); i++) {
+            hash = hash * HASH_BASE + word.charAt(i);
+         }
+         for (int i = 0; i < word.length(); i++) {
+            int p = firstPattern[w] + i;
+            wordOf[p] = w;
+            int patternHash = hash + (WILDCARD - word.charAt(i)) * power[word.length() - 1 - i];
+            
+            //Probing until we find this pattern's group or an empty slot. The
+            //stored hashes rule out most other patterns without touching them.
+            int slot = (patternHash * 0x9E3779B9) >>> shift;
+            groupOf[p] = p;
+            while (table[slot] != 0) {
+               int other = (int) table[slot] - 1;
+               if ((int) (table[slot] >>> 32) == patternHash) {
+                  int o = wordOf[other];
+                  if (other - firstPattern[o] == i && samePattern(word, words[o], i)) {
+                     groupOf[p] = other;
+                     break;
+                  }
+               }
+               slot = (slot + 1) & mask;
+            }
+            if (groupOf[p] == p) {
+               table[slot] = ((long) patternHash << 32) | (p + 1);
+            }
+            if (++groupSize[groupOf[p]] == 2) {
+               shared++;
+            }
+            
+            int root = find(parent, w);
+            int other = find(parent, wordOf[groupOf[p]]);
+            if (other != root) {
+               parent[other] = root;
+            }
+         }
+      }
+      table = null;
+      
+      //Turning the shared patterns into buckets, in word order.
+      buckets = new HashMap<>(shared * 4 / 3 + 1);
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      List<String>[] lists = new List[patterns];
+      for (int p = 0; p < patterns; p++) {
+         int group = groupOf[p];
+         if (groupSize[group] < 2) {
+            continue;
+         }
+         String word = words[wordOf[p]];
+         if (group == p) {
+            lists[p] = new ArrayList<>(groupSize[p]);
+            buckets.put(pattern(word, p - firstPattern[wordOf[p]]), lists[p]);
+         }
+         lists[group].add(word);
+      }
+   }
+   
+   /**
+    * Returns true if a and b have the same length and the same characters
+    * everywhere except possibly at index.
+    */
+   private static boolean samePattern(String a, String b, int index) {
+      if (a.length() != b.length()) {
+         return false;
+      }
+      return a.regionMatches(0, b, 0, index)
+         && a.regionMatches(index + 1, b, index + 1, a.length() - index - 1);
+   }
+   
+   /**
+    * Builds the one-letter-change graph of the whole lexicon once, partitioned
+    * by word length, with words mapped to int ids and edges stored in flat int
+    * arrays. After this, getMinLadder runs its breadth-first search over int
+    * queues and a BitSet instead of Strings, sets of Strings and Nodes. The
+    * graph holds the same edges as the buckets, so they are dropped and
+    * getNeighbors reads the graph instead.
+    */
+   public synchronized void buildWordGraph() {
+      if (graph == null) {
+         ensureIndexes();
+         graph = new WordGraph(lexicon, buckets.values());
+         buckets = null;
+      }
+   }
+   
+   /**
+    * Returns word with the character at index replaced by the wildcard.
+    */
+   private static String pattern(String word, int index) {
+      char[] letters = word.toCharArray();
+      letters[index] = WILDCARD;
+      return new String(letters);
    }
 
 
@@ -78,7 +569,7 @@ public class Doublets implements WordLadderGame {
     * @return number of words in the lexicon
     */
    public int getWordCount() {
-      return lexicon.size();
+      return lexicon.length;
    }
 
 
@@ -89,7 +580,7 @@ public class Doublets implements WordLadderGame {
     * @return     true if str is a word, false otherwise
     */
    public boolean isWord(String str) {
-      return lexicon.contains(str.toLowerCase());
+      return indexOf(str.toLowerCase()) != -1;
    }
 
 
@@ -143,13 +634,44 @@ public class Doublets implements WordLadderGame {
       
       word = word.toLowerCase();
       
-      //If word in lexicon has same Hamming Distance as parameter, then it is a neighbor.
-      for (String lexWord : lexicon) {
-         if (getHammingDistance(lexWord, word) == 1) {
-            neighbors.add(lexWord);
+      //Buckets only list the patterns of words, so anything else is compared
+      //against every word instead.
+      if (!isWord(word)) {
+         for (String lexWord : lexicon) {
+            if (getHammingDistance(word, lexWord) == 1) {
+               neighbors.add(lexWord);
+            }
          }
+         return neighbors;
       }
       
+      //Reading the buckets before the graph: buildWordGraph only drops them
+      //after the graph is in place.
+      ensureIndexes();
+      Map<String, List<String>> wordBuckets = buckets;
+      if (wordBuckets == null) {
+         WordGraph words = graph;
+         neighbors = words.neighborsOf(words.idOf(word));
+         neighbors.sort(null);
+         return neighbors;
+      }
+      
+      //A neighbor differs from word at exactly one position, so it shares exactly
+      //one wildcard pattern with word and shows up in exactly one of its buckets.
+      for (int i = 0; i < word.length(); i++) {
+         List<String> bucket = wordBuckets.get(pattern(word, i));
+         if (bucket != null) {
+            for (String lexWord : bucket) {
+               if (!lexWord.equals(word)) {
+                  neighbors.add(lexWord);
+               }
+            }
+         }
+      }
+      
+      //Keeping the lexicon's alphabetical order.
+      neighbors.sort(null);
+      
       return neighbors;
    }
 
@@ -162,40 +684,66 @@ public class Doublets implements WordLadderGame {
     *                       false otherwise
     */
    public boolean isWordLadder(List<String> sequence) {
-      
-     //  //There must be at least a start and end word in a word ladder.
-      // if (sequence.size() < 2) {
-         // return false;
-      // }
-      
-      if (sequence.size() < 1) {
-         return false;
-      }
-      
-      String start = sequence.get(0).toLowerCase();
-      String end = sequence.get(sequence.size() - 1).toLowerCase();
-      
-      //Checking if start and end words are in lexicon.
-      if (!isWord(start) || !isWord(end)) {
-         return false;
+      return checkLadder(sequence) == LadderStatus.VALID;
+   }
+   
+   /**
+    * Checks the given sequence of strings as a word ladder in a single pass.
+    * Each string is lower-cased once, looked up once in the lexicon,
+    * and compared with the string before it, stopping at the first problem.
+    *
+    * @param  sequence the given sequence of strings
+    * @return          VALID if the sequence is a word ladder, or the first
+    *                       reason it is not
+    */
+   public LadderStatus checkLadder(List<String> sequence) {
+      if (sequence.isEmpty()) {
+         return LadderStatus.EMPTY;
       }
       
-      //Checking to make sure rest of the words are valid words.
+      String previous = null;
       for (String wordInSequence : sequence) {
          String word = wordInSequence.toLowerCase();
-         if (!isWord(word)) {
-            return false;
+         if (indexOf(word) == -1) {
+            return LadderStatus.NOT_A_WORD;
+         }
+         if (previous != null && !isOneLetterApart(previous, word)) {
+            return LadderStatus.NOT_ONE_LETTER_APART;
          }
+         previous = word;
       }
-      
-      //Making sure that words next to each other have the same Hamming Distance (of 1 for this game).
-      for (int i = 0; i < sequence.size() - 1; i++) {
-         if (getHammingDistance(sequence.get(i), sequence.get(i+1)) != 1) {
+      return LadderStatus.VALID;
+   }
+   
+   /**
+    * Checks many sequences of strings as word ladders at once, in parallel.
+    * The lexicon never changes after construction, so the checks need no
+    * locking.
+    *
+    * @param  sequences  the sequences to check
+    * @return            the status of each sequence, in the same order
+    */
+   public List<LadderStatus> checkLadders(List<? extends List<String>> sequences) {
+      return sequences.parallelStream()
+         .map(this::checkLadder)
+         .collect(Collectors.toList());
+   }
+   
+   /**
+    * Returns true if a and b have the same length and differ at exactly one
+    * position. Both must already be in lower case.
+    */
+   private static boolean isOneLetterApart(String a, String b) {
+      if (a.length() != b.length()) {
+         return false;
+      }
+      int differences = 0;
+      for (int i = 0; i < a.length(); i++) {
+         if (a.charAt(i) != b.charAt(i) && ++differences > 1) {
             return false;
          }
-      }  
-      
-      return true;
+      }
+      return differences == 1;
    }
 
 
@@ -215,6 +763,7 @@ public class Doublets implements WordLadderGame {
    
       start = start.toLowerCase();
       end = end.toLowerCase();
+      lastNodesExpanded = 0;
    
       //Making sure start and end are both valid words.
       if (!isWord(start) || !isWord(end)) {
@@ -225,6 +774,89 @@ public class Doublets implements WordLadderGame {
          return Arrays.asList(start);
       }
       
+      //Answering right away when no ladder can exist.
+      if (!isConnected(start, end)) {
+         return new ArrayList<String>();
+      }
+      
+      //Searching the word graph when it has been built. Its int breadth-first
+      //search is cheap enough that no tree is cached for it.
+      WordGraph words = graph;
+      if (words != null) {
+         WordGraph.Scratch scratch = words.borrowScratch();
+         try {
+            int[] ids = words.ladder(words.idOf(start), words.idOf(end), scratch);
+            lastNodesExpanded = scratch.expanded;
+            List<String> ladder = new ArrayList<String>(ids.length);
+            for (int id : ids) {
+               ladder.add(words.wordOf(id));
+            }
+            return ladder;
+         }
+         finally {
+            words.returnScratch(scratch);
+         }
+      }
+      
+      //Walking the cached tree if start is hot. A start word that keeps coming
+      //back has its tree built in the background, and the targeted search
+      //below answers until the tree is ready.
+      Map<String, Node> tree;
+      boolean hot;
+      synchronized (pathTrees) {
+         tree = pathTrees.get(start);
+         hot = tree == null && seenStarts.merge(start, 1, Integer::sum) >= HOT_START_QUERIES;
+      }
+      if (tree != null) {
+         return ladderTo(tree.get(end));
+      }
+      if (hot) {
+         pathTreeBuild(start, true);
+      }
+      
+      return searchLadder(start, end);
+   }
+   
+   /**
+    * Returns a minimum-length word ladder from start to end, like getMinLadder,
+    * but always with a fresh breadth-first search over the word strings. It
+    * neither reads nor fills the tree cache and ignores the word graph, so
+    * getLastNodesExpanded counts the words a plain search really expands.
+    * LadderSearchComparison uses it as its baseline.
+    *
+    * @param  start  the starting word
+    * @param  end    the ending word
+    * @return        a minimum length word ladder from start to end
+    */
+   List<String> getMinLadderUncached(String start, String end) {
+   
+      start = start.toLowerCase();
+      end = end.toLowerCase();
+      lastNodesExpanded = 0;
+   
+      if (!isWord(start) || !isWord(end)) {
+         return new ArrayList<String>();
+      }
+      if (start.equals(end)) {
+         return Arrays.asList(start);
+      }
+      if (!isConnected(start, end)) {
+         return new ArrayList<String>();
+      }
+      return searchLadder(start, end);
+   }
+   
+   /**
+    * Searches breadth-first from start for end over the word strings, adding
+    * each word it expands to lastNodesExpanded.
+    *
+    * @param  start  the starting word, a word in lower case
+    * @param  end    the ending word, a different word in lower case
+    * @return        a minimum length word ladder from start to end, or an
+    *                   empty list if there is none
+    */
+   private List<String> searchLadder(String start, String end) {
+   
       //Using BFS to search for shortest ladder.
       Deque<Node> queue = new ArrayDeque<Node>();
       
@@ -242,6 +874,7 @@ public class Doublets implements WordLadderGame {
       while (!queue.isEmpty()) {
          //Current starts as the starting Node. 
          Node current = queue.poll();
+         lastNodesExpanded++;
          
          //Going through every neighbor to find end word.
          for (String neighbor : getNeighbors(current.word)) {
@@ -273,9 +906,517 @@ public class Doublets implements WordLadderGame {
       }
       
       return new ArrayList<String>();
+   }  
+   
+   /**
+    * Returns the length of the shortest ladder from the given word to every
+    * word it can reach, found in a single breadth-first search. The word itself
+    * is at distance 0, its neighbors at 1, and so on. The search's tree is
+    * cached, so later ladders from the same word are read straight from it,
+    * and calling this ahead of time warms the cache for a known hot word. If
+    * the word's tree is already being built, this waits for that build.
+    *
+    * @param  word  the starting word
+    * @return       a map from each reachable word to its distance, or an empty
+    *                   map if word is not a word
+    */
+   public Map<String, Integer> distancesFrom(String word) {
+      word = word.toLowerCase();
       
+      Map<String, Integer> distances = new HashMap<String, Integer>();
+      if (!isWord(word)) {
+         return distances;
+      }
       
-   }  
+      Map<String, Node> tree;
+      synchronized (pathTrees) {
+         tree = pathTrees.get(word);
+      }
+      if (tree == null) {
+         tree = pathTreeBuild(word, false).join();
+      }
+      for (Node node : tree.values()) {
+         distances.put(node.word, node.depth);
+      }
+      return distances;
+   }
+   
+   /**
+    * Returns the build of start's shortest-path tree, starting one unless it
+    * is already running, so concurrent callers share a single build. A new
+    * build runs on TREE_BUILDER if inBackground is true, and in the calling
+    * thread otherwise.
+    *
+    * @param  start         the root word of the tree, in lower case
+    * @param  inBackground  whether a new build should leave the calling thread
+    * @return               a future completed with the cached tree
+    */
+   private CompletableFuture<Map<String, Node>> pathTreeBuild(String start,
+         boolean inBackground) {
+      CompletableFuture<Map<String, Node>> build = new CompletableFuture<>();
+      CompletableFuture<Map<String, Node>> running = treeBuilds.putIfAbsent(start, build);
+      if (running != null) {
+         return running;
+      }
+      
+      Runnable task = () -> {
+         try {
+            //Another build may have cached the tree just before this one began.
+            Map<String, Node> tree;
+            synchronized (pathTrees) {
+               tree = pathTrees.get(start);
+            }
+            build.complete((tree != null) ? tree : cachePathTree(start));
+         }
+         catch (RuntimeException | Error e) {
+            build.completeExceptionally(e);
+         }
+         finally {
+            treeBuilds.remove(start, build);
+         }
+      };
+      if (inBackground) {
+         TREE_BUILDER.execute(task);
+      }
+      else {
+         task.run();
+      }
+      return build;
+   }
+   
+   /**
+    * Builds the shortest-path tree of start with a breadth-first search over
+    * its whole component, and caches it. Least recently used trees are
+    * dropped until the cache is back within MAX_CACHED_TREE_WORDS words. Only
+    * pathTreeBuild calls this, so no two threads build the same tree at once.
+    *
+    * @param  start  the root word of the tree, in lower case
+    * @return        the tree, mapping each reachable word to its node
+    */
+   private Map<String, Node> cachePathTree(String start) {
+      Map<String, Node> tree = new HashMap<String, Node>();
+      Deque<Node> queue = new ArrayDeque<Node>();
+      
+      Node startAsNode = new Node(start, null);
+      tree.put(start, startAsNode);
+      queue.offer(startAsNode);
+      
+      while (!queue.isEmpty()) {
+         Node current = queue.poll();
+         for (String neighbor : getNeighbors(current.word)) {
+            if (!tree.containsKey(neighbor)) {
+               Node neighborAsNode = new Node(neighbor, current);
+               tree.put(neighbor, neighborAsNode);
+               queue.offer(neighborAsNode);
+            }
+         }
+      }
+      
+      synchronized (pathTrees) {
+         Map<String, Node> replaced = pathTrees.put(start, tree);
+         cachedTreeWords += tree.size() - ((replaced == null) ? 0 : replaced.size());
+         
+         //Evicting from the least recently used end, but never the new tree.
+         Iterator<Map<String, Node>> eldest = pathTrees.values().iterator();
+         while (cachedTreeWords > MAX_CACHED_TREE_WORDS && pathTrees.size() > 1) {
+            cachedTreeWords -= eldest.next().size();
+            eldest.remove();
+         }
+      }
+      return tree;
+   }
+   
+   /**
+    * Returns the ladder from the root of a node chain to the given node.
+    *
+    * @param  last  the node of the ladder's last word
+    * @return       the words of the ladder in order
+    */
+   private List<String> ladderTo(Node last) {
+      LinkedList<String> ladder = new LinkedList<String>();
+      for (Node n = last; n != null; n = n.prev) {
+         //Adding words in reverse order from end to start.
+         ladder.addFirst(n.word);
+      }
+      return ladder;
+   }
+   
+   /**
+    * Returns a minimum-length word ladder from start to end, like getMinLadder,
+    * but searches breadth-first from both ends at once. Each round expands one
+    * whole layer of whichever frontier is smaller, so neither side's frontier
+    * has to grow to the full length of the ladder. If no word ladder exists,
+    * this method returns an empty list.
+    *
+    * @param  start  the starting word
+    * @param  end    the ending word
+    * @return        a minimum length word ladder from start to end
+    */
+   public List<String> getMinLadderBidirectional(String start, String end) {
+   
+      start = start.toLowerCase();
+      end = end.toLowerCase();
+      lastNodesExpanded = 0;
+   
+      //Making sure start and end are both valid words.
+      if (!isWord(start) || !isWord(end)) {
+         return new ArrayList<String>();
+      }
+      
+      if (start.equals(end)) {
+         return Arrays.asList(start);
+      }
+      
+      //Answering right away when no ladder can exist.
+      if (!isConnected(start, end)) {
+         return new ArrayList<String>();
+      }
+      
+      //Each side remembers how it reached every word it has visited.
+      Map<String, Node> fromStart = new HashMap<String, Node>();
+      Map<String, Node> fromEnd = new HashMap<String, Node>();
+      List<Node> startFrontier = new ArrayList<Node>();
+      List<Node> endFrontier = new ArrayList<Node>();
+      
+      Node startAsNode = new Node(start, null);
+      Node endAsNode = new Node(end, null);
+      fromStart.put(start, startAsNode);
+      fromEnd.put(end, endAsNode);
+      startFrontier.add(startAsNode);
+      endFrontier.add(endAsNode);
+      
+      while (!startFrontier.isEmpty() && !endFrontier.isEmpty()) {
+         boolean forward = startFrontier.size() <= endFrontier.size();
+         List<Node> frontier = forward ? startFrontier : endFrontier;
+         Map<String, Node> visited = forward ? fromStart : fromEnd;
+         Map<String, Node> other = forward ? fromEnd : fromStart;
+         
+         List<Node> nextFrontier = new ArrayList<Node>();
+         //The best place the two searches meet in this layer, as the nodes of
+         //each side for the shared word.
+         Node meetHere = null;
+         Node meetOther = null;
+         
+         for (Node current : frontier) {
+            lastNodesExpanded++;
+            for (String neighbor : getNeighbors(current.word)) {
+               Node reached = other.get(neighbor);
+               //Finishing the layer but keeping the meeting that gives the
+               //shortest ladder, since the other side's words are not all at
+               //the same depth.
+               if (reached != null) {
+                  if (meetOther == null || reached.depth < meetOther.depth) {
+                     meetHere = new Node(neighbor, current);
+                     meetOther = reached;
+                  }
+               }
+               else if (!visited.containsKey(neighbor)) {
+                  Node neighborAsNode = new Node(neighbor, current);
+                  visited.put(neighbor, neighborAsNode);
+                  nextFrontier.add(neighborAsNode);
+               }
+            }
+         }
+         
+         if (meetHere != null) {
+            return forward ? joinLadder(meetHere, meetOther) : joinLadder(meetOther, meetHere);
+         }
+         
+         if (forward) {
+            startFrontier = nextFrontier;
+         }
+         else {
+            endFrontier = nextFrontier;
+         }
+      }
+      
+      return new ArrayList<String>();
+   }
+   
+   /**
+    * Joins the two halves of a ladder found by the bidirectional search. Both
+    * nodes hold the word where the searches met.
+    *
+    * @param  fromStart  the meeting word's node on the chain back to start
+    * @param  fromEnd    the meeting word's node on the chain back to end
+    * @return            the ladder from start to end
+    */
+   private List<String> joinLadder(Node fromStart, Node fromEnd) {
+      LinkedList<String> ladder = new LinkedList<String>();
+      
+      //Adding words in reverse order from the meeting word back to start.
+      for (Node n = fromStart; n != null; n = n.prev) {
+         ladder.addFirst(n.word);
+      }
+      //Adding the words after the meeting word on through to end.
+      for (Node n = fromEnd.prev; n != null; n = n.prev) {
+         ladder.addLast(n.word);
+      }
+      return ladder;
+   }
+   
+   /**
+    * Returns a minimum-length word ladder from start to end, like getMinLadder,
+    * but with an A* search instead of breadth-first search. Words are expanded
+    * in order of the steps taken so far plus the Hamming distance left to end.
+    * Each step changes one letter, so that distance never overestimates the
+    * steps still needed and the first ladder reaching end is a shortest one.
+    * Among words with the same estimate, those closest to end go first. If no
+    * word ladder exists, this method returns an empty list.
+    *
+    * @param  start  the starting word
+    * @param  end    the ending word
+    * @return        a minimum length word ladder from start to end
+    */
+   public List<String> getMinLadderAStar(String start, String end) {
+   
+      start = start.toLowerCase();
+      end = end.toLowerCase();
+      lastNodesExpanded = 0;
+   
+      //Making sure start and end are both valid words.
+      if (!isWord(start) || !isWord(end)) {
+         return new ArrayList<String>();
+      }
+      
+      if (start.equals(end)) {
+         return Arrays.asList(start);
+      }
+      
+      //Answering right away when no ladder can exist.
+      if (!isConnected(start, end)) {
+         return new ArrayList<String>();
+      }
+      
+      //The best node found so far for every word reached.
+      Map<String, Node> reached = new HashMap<String, Node>();
+      PriorityQueue<Node> open = new PriorityQueue<Node>(
+         Comparator.<Node>comparingInt(n -> n.bound).thenComparingInt(n -> -n.depth));
+      
+      Node startAsNode = new Node(start, null);
+      startAsNode.bound = getHammingDistance(start, end);
+      reached.put(start, startAsNode);
+      open.add(startAsNode);
+      
+      while (!open.isEmpty()) {
+         Node current = open.poll();
+         //Skipping entries left behind after a shorter way to the word was found.
+         if (reached.get(current.word) != current) {
+            continue;
+         }
+         if (current.word.equals(end)) {
+            return ladderTo(current);
+         }
+         lastNodesExpanded++;
+         
+         for (String neighbor : getNeighbors(current.word)) {
+            Node known = reached.get(neighbor);
+            if (known == null || known.depth > current.depth + 1) {
+               Node neighborAsNode = new Node(neighbor, current);
+               neighborAsNode.bound = neighborAsNode.depth + getHammingDistance(neighbor, end);
+               reached.put(neighbor, neighborAsNode);
+               open.add(neighborAsNode);
+            }
+         }
+      }
+      
+      return new ArrayList<String>();
+   }
+   
+   /**
+    * Returns the number of words whose neighbors were generated by the most
+    * recent call to getMinLadder, getMinLadderBidirectional or
+    * getMinLadderAStar. It is 0 when the ladder needed no search, for example
+    * when it was read from a cached tree. Trees built for hot start words are
+    * not counted, since no query waits for them. The count is only meaningful
+    * while one thread at a time is searching.
+    *
+    * @return the number of words expanded by the last ladder search
+    */
+   public int getLastNodesExpanded() {
+      return lastNodesExpanded;
+   }
+   
+   /**
+    * Returns the number of distinct minimum-length word ladders from start to
+    * end. They are counted over the layers of one breadth-first search, by
+    * adding up the counts of each word's parents, so none of them is built.
+    * Counts too large for a long are reported as Long.MAX_VALUE.
+    *
+    * @param  start  the starting word
+    * @param  end    the ending word
+    * @return        the number of minimum length word ladders from start to
+    *                    end, or 0 if there is none
+    */
+   public long countMinLadders(String start, String end) {
+      start = start.toLowerCase();
+      end = end.toLowerCase();
+      
+      Map<String, List<String>> parents = shortestParents(start, end);
+      if (parents == null) {
+         return 0;
+      }
+      return countLadders(end, start, parents, new HashMap<String, Long>());
+   }
+   
+   /**
+    * Returns the number of shortest ladders from start to word, remembering
+    * the count of every word on the way in counts.
+    */
+   private static long countLadders(String word, String start,
+         Map<String, List<String>> parents, Map<String, Long> counts) {
+      if (word.equals(start)) {
+         return 1;
+      }
+      Long known = counts.get(word);
+      if (known != null) {
+         return known;
+      }
+      
+      long count = 0;
+      for (String parent : parents.get(word)) {
+         long more = countLadders(parent, start, parents, counts);
+         //Stopping at Long.MAX_VALUE instead of overflowing.
+         count = (count > Long.MAX_VALUE - more) ? Long.MAX_VALUE : count + more;
+      }
+      counts.put(word, count);
+      return count;
+   }
+   
+   /**
+    * Returns every minimum-length word ladder from start to end, one at a
+    * time. Only the shortest-path parents found by one breadth-first search
+    * are kept, and each ladder is built when next is called, so the ladders
+    * are never all held in memory at once, however many there are.
+    *
+    * @param  start  the starting word
+    * @param  end    the ending word
+    * @return        an iterator over the minimum length word ladders from
+    *                    start to end, which has none if there is no ladder
+    */
+   public Iterator<List<String>> getMinLadders(String start, String end) {
+      start = start.toLowerCase();
+      end = end.toLowerCase();
+      
+      Map<String, List<String>> parents = shortestParents(start, end);
+      if (parents == null) {
+         return new ArrayList<List<String>>().iterator();
+      }
+      return new LadderIterator(parents, start, end);
+   }
+   
+   /**
+    * Runs a breadth-first search from start one whole layer at a time, up to
+    * the layer holding end. Every word reached gets all of its neighbors in
+    * the layer before it as parents, not just the first one found.
+    *
+    * @param  start  the starting word, in lower case
+    * @param  end    the ending word, in lower case
+    * @return        the parents of every word reached, or null if there is
+    *                    no ladder from start to end
+    */
+   private Map<String, List<String>> shortestParents(String start, String end) {
+      if (!isWord(start) || !isWord(end) || !isConnected(start, end)) {
+         return null;
+      }
+      
+      Map<String, List<String>> parents = new HashMap<String, List<String>>();
+      parents.put(start, new ArrayList<String>());
+      List<String> layer = new ArrayList<String>();
+      layer.add(start);
+      
+      //Words in the layer being built, which may still gain parents.
+      HashSet<String> nextLayer = new HashSet<String>();
+      while (!parents.containsKey(end)) {
+         nextLayer.clear();
+         for (String word : layer) {
+            for (String neighbor : getNeighbors(word)) {
+               List<String> known = parents.get(neighbor);
+               if (known == null) {
+                  known = new ArrayList<String>(1);
+                  parents.put(neighbor, known);
+                  nextLayer.add(neighbor);
+               }
+               if (nextLayer.contains(neighbor)) {
+                  known.add(word);
+               }
+            }
+         }
+         layer = new ArrayList<String>(nextLayer);
+      }
+      return parents;
+   }
+   
+   /**
+    * Walks every ladder through the shortest-path parents like an odometer.
+    * path[0] is the end word and each later slot holds a parent of the word
+    * before it, chosen by the same slot of choice. Every parent is one layer
+    * closer to start, so every choice reaches start at the last slot, and
+    * advancing means bumping the last slot that still has parents left and
+    * resetting the slots after it.
+    */
+   private static class LadderIterator implements Iterator<List<String>> {
+      
+      private final Map<String, List<String>> parents;
+      private final String[] path;
+      private final int[] choice;
+      private boolean more = true;
+      
+      LadderIterator(Map<String, List<String>> parents, String start, String end) {
+         this.parents = parents;
+         int length = 1;
+         for (String word = end; !word.equals(start); word = parents.get(word).get(0)) {
+            length++;
+         }
+         path = new String[length];
+         choice = new int[length];
+         path[0] = end;
+         fillFrom(1);
+      }
+      
+      /**
+       * Takes the first parent at every slot from index on.
+       */
+      private void fillFrom(int index) {
+         for (int i = index; i < path.length; i++) {
+            choice[i] = 0;
+            path[i] = parents.get(path[i - 1]).get(0);
+         }
+      }
+      
+      @Override
+      public boolean hasNext() {
+         return more;
+      }
+      
+      @Override
+      public List<String> next() {
+         if (!more) {
+            throw new NoSuchElementException();
+         }
+         
+         List<String> ladder = new ArrayList<String>(path.length);
+         for (int i = path.length - 1; i >= 0; i--) {
+            ladder.add(path[i]);
+         }
+         
+         //Moving on to the next ladder, or running out.
+         int i = path.length - 1;
+         while (i > 0 && choice[i] + 1 == parents.get(path[i - 1]).size()) {
+            i--;
+         }
+         if (i == 0) {
+            more = false;
+         }
+         else {
+            choice[i]++;
+            path[i] = parents.get(path[i - 1]).get(choice[i]);
+            fillFrom(i + 1);
+         }
+         return ladder;
+      }
+      
+   }
    
    /**
     * Class representing a node-linked structure.
@@ -284,10 +1425,13 @@ public class Doublets implements WordLadderGame {
       
       String word;
       Node prev;
+      int depth; // number of steps back to the first node of the chain.
+      int bound; // depth plus the steps still needed at least, for A*.
       
       public Node(String word, Node prev) {
          this.word = word;
          this.prev = prev;
+         this.depth = (prev == null) ? 0 : prev.depth + 1;
       }
       
    }
@@ -0,0 +1,175 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves minimum-length ladder queries from many threads at once over one
+ * shared Doublets. The service builds the Doublets' word graph up front, so
+ * every query is answered by Doublets.getMinLadder's breadth-first search
+ * over that graph, which is never changed once built. Each search borrows a
+ * set of search arrays from the graph's pool and gives it back when done, so
+ * the arrays are reused across queries instead of allocated for each one.
+ *
+ * Queries passed to submit run on virtual threads when the JVM has them, and
+ * on a pool of one platform thread per processor otherwise. Two times are
+ * recorded so percentiles can be reported: the time each query spends
+ * searching, and for submitted queries the response time from submit until
+ * the future completes, which also counts the time spent waiting in the
+ * executor's queue.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class LadderQueryService implements AutoCloseable {
+
+   private final Doublets doublets;
+   private final ExecutorService executor;
+   private final boolean virtualThreads;
+   private final LatencyHistogram latencies = new LatencyHistogram();
+   private final LatencyHistogram responseLatencies = new LatencyHistogram();
+
+   /**
+    * Creates a service that answers ladder queries with the given Doublets,
+    * building its word graph if it has not been built yet.
+    *
+    * @param doublets the Doublets to answer queries with.
+    * @throws IllegalArgumentException if doublets is null.
+    */
+   public LadderQueryService(Doublets doublets) {
+      if (doublets == null) {
+         throw new IllegalArgumentException();
+      }
+      this.doublets = doublets;
+      doublets.buildWordGraph();
+      
+      ExecutorService virtual = virtualThreadExecutor();
+      this.virtualThreads = virtual != null;
+      this.executor = (virtual != null)
+         ? virtual : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Returns an executor that starts a virtual thread per task, or null if
+    * this JVM has no virtual threads. It is looked up by name so that the
+    * service still compiles and runs on JVMs from before virtual threads.
+    */
+   private static ExecutorService virtualThreadExecutor() {
+      try {
+         return (ExecutorService) Executors.class
+            .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (ReflectiveOperationException e) {
+         return null;
+      }
+   }
+
+   /**
+    * Returns true if submitted queries run on virtual threads.
+    *
+    * @return true if virtual threads are in use, false otherwise.
+    */
+   public boolean usesVirtualThreads() {
+      return virtualThreads;
+   }
+
+   /**
+    * Returns a minimum-length word ladder from start to end, in the calling
+    * thread. Any number of threads may call this at once.
+    *
+    * @param start the starting word.
+    * @param end the ending word.
+    * @return a minimum length word ladder from start to end, or an empty list
+    *     if there is none.
+    * @throws IllegalArgumentException if start or end is null.
+    */
+   public List<String> getMinLadder(String start, String end) {
+      if (start == null || end == null) {
+         throw new IllegalArgumentException();
+      }
+      long began = System.nanoTime();
+      try {
+         return doublets.getMinLadder(start, end);
+      }
+      finally {
+         latencies.record(System.nanoTime() - began);
+      }
+   }
+
+   /**
+    * Queues a ladder query to run on the service's threads.
+    *
+    * @param start the starting word.
+    * @param end the ending word.
+    * @return a future completed with the ladder from start to end, after its
+    *     response time has been recorded.
+    * @throws IllegalArgumentException if start or end is null.
+    */
+   public CompletableFuture<List<String>> submit(String start, String end) {
+      if (start == null || end == null) {
+         throw new IllegalArgumentException();
+      }
+      long submitted = System.nanoTime();
+      return CompletableFuture.supplyAsync(() -> getMinLadder(start, end), executor)
+         .whenComplete((ladder, failure) -> responseLatencies.record(System.nanoTime() - submitted));
+   }
+
+   /**
+    * Returns the number of queries answered since the service started or its
+    * latencies were last reset.
+    *
+    * @return the number of queries answered.
+    */
+   public long getQueryCount() {
+      return latencies.count();
+   }
+
+   /**
+    * Returns the time queries spent searching at the given percentile, for
+    * example 50 for the median or 99 for the slowest one in a hundred. Time
+    * spent queued before the search started is not included.
+    *
+    * @param percentile the percentile, from 0 to 100.
+    * @return the latency in microseconds, or 0 if no query has been answered.
+    * @throws IllegalArgumentException if percentile is not from 0 to 100.
+    */
+   public double getLatencyMicros(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+         throw new IllegalArgumentException();
+      }
+      return latencies.percentile(percentile) / 1_000.0;
+   }
+
+   /**
+    * Returns the response time of submitted queries at the given percentile,
+    * measured from the call to submit until the query's future completes, so
+    * it includes the time the query waited for a thread.
+    *
+    * @param percentile the percentile, from 0 to 100.
+    * @return the response time in microseconds, or 0 if no submitted query
+    *     has completed.
+    * @throws IllegalArgumentException if percentile is not from 0 to 100.
+    */
+   public double getResponseLatencyMicros(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+         throw new IllegalArgumentException();
+      }
+      return responseLatencies.percentile(percentile) / 1_000.0;
+   }
+
+   /**
+    * Forgets the latencies recorded so far.
+    */
+   public void resetLatencies() {
+      latencies.clear();
+      responseLatencies.clear();
+   }
+
+   /**
+    * Stops accepting submitted queries and lets the queued ones finish.
+    */
+   @Override
+   public void close() {
+      executor.shutdown();
+   }
+
+}
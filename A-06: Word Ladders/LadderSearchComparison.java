@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares how many words a plain breadth-first search and getMinLadderAStar
+ * expand over a log of ladder queries. The breadth-first side runs without
+ * getMinLadder's tree cache, so every query pays for its own search. Each
+ * line of the log holds a start word and an end word separated by whitespace.
+ * Without a log, random queries are made by walking a few random steps from
+ * random words.
+ *
+ *      java LadderSearchComparison [query log] [word list]
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class LadderSearchComparison {
+
+   private static final int RANDOM_QUERIES = 500;
+   private static final int MAX_RANDOM_STEPS = 10;
+
+   /** Drives execution. */
+   public static void main(String[] args) throws IOException {
+      String wordFile = args.length > 1 ? args[1] : "sowpods.txt";
+      Doublets doublets = new Doublets(Paths.get(wordFile));
+      List<String[]> queries = (args.length > 0)
+         ? readQueries(args[0]) : randomQueries(doublets, wordFile, new Random(2210), RANDOM_QUERIES);
+   
+      long bfsExpanded = 0;
+      long aStarExpanded = 0;
+      long bfsNanos = 0;
+      long aStarNanos = 0;
+      int mismatches = 0;
+      for (String[] query : queries) {
+         long t = System.nanoTime();
+         List<String> bfs = doublets.getMinLadderUncached(query[0], query[1]);
+         bfsNanos += System.nanoTime() - t;
+         bfsExpanded += doublets.getLastNodesExpanded();
+      
+         t = System.nanoTime();
+         List<String> aStar = doublets.getMinLadderAStar(query[0], query[1]);
+         aStarNanos += System.nanoTime() - t;
+         aStarExpanded += doublets.getLastNodesExpanded();
+      
+         //Both searches must find ladders of the same, minimum length.
+         if (bfs.size() != aStar.size() || (!aStar.isEmpty() && !doublets.isWordLadder(aStar))) {
+            mismatches++;
+         }
+      }
+   
+      System.out.println("Queries:       " + queries.size());
+      System.out.printf("BFS expanded:  %,d words in %.1f ms%n", bfsExpanded, bfsNanos / 1e6);
+      System.out.printf("A* expanded:   %,d words in %.1f ms%n", aStarExpanded, aStarNanos / 1e6);
+      if (aStarExpanded > 0) {
+         System.out.printf("BFS / A*:      %.2fx%n", (double) bfsExpanded / aStarExpanded);
+      }
+      System.out.println("Mismatches:    " + mismatches);
+   }
+
+   /**
+    * Reads the start and end word from each non-blank line of the named file.
+    */
+   private static List<String[]> readQueries(String fileName) throws IOException {
+      List<String[]> queries = new ArrayList<>();
+      for (String line : Files.readAllLines(Paths.get(fileName))) {
+         String[] words = line.trim().split("\\s+");
+         if (words.length >= 2) {
+            queries.add(new String[] {words[0], words[1]});
+         }
+      }
+      return queries;
+   }
+
+   /**
+    * Makes count queries that have a ladder by walking random steps from
+    * random words in the word list.
+    */
+   static List<String[]> randomQueries(Doublets doublets, String wordFile, Random random,
+         int count) throws IOException {
+      List<String> words = new ArrayList<>();
+      for (String line : Files.readAllLines(Paths.get(wordFile))) {
+         String[] tokens = line.trim().split("\\s+");
+         if (!tokens[0].isEmpty()) {
+            words.add(tokens[0].toLowerCase());
+         }
+      }
+   
+      List<String[]> queries = new ArrayList<>();
+      while (queries.size() < count) {
+         String start = words.get(random.nextInt(words.size()));
+         String end = start;
+         for (int step = random.nextInt(MAX_RANDOM_STEPS) + 1; step > 0; step--) {
+            List<String> neighbors = doublets.getNeighbors(end);
+            if (neighbors.isEmpty()) {
+               break;
+            }
+            end = neighbors.get(random.nextInt(neighbors.size()));
+         }
+         if (!end.equals(start)) {
+            queries.add(new String[] {start, end});
+         }
+      }
+      return queries;
+   }
+}
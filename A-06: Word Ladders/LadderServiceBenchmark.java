@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Puts LadderQueryService under load with random reachable ladder queries and
+ * reports its throughput and the p50 and p99 of both the time spent searching
+ * and the response time from submit to completion. Like a pool of clients
+ * that each wait for an answer before asking again, it keeps a fixed number
+ * of queries in flight, two per processor unless told otherwise, so the
+ * response time reflects the load rather than a query's place in one huge
+ * backlog.
+ *
+ *      java LadderServiceBenchmark [queries] [word list] [queries in flight]
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public class LadderServiceBenchmark {
+
+   private static final int WARMUP_QUERIES = 5_000;
+
+   /** Drives execution. */
+   public static void main(String[] args) throws IOException {
+      int queryCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+      String wordFile = args.length > 1 ? args[1] : "sowpods.txt";
+      int inFlight = args.length > 2 ? Integer.parseInt(args[2])
+         : 2 * Runtime.getRuntime().availableProcessors();
+      Doublets doublets = new Doublets(Paths.get(wordFile));
+      List<String[]> queries = LadderSearchComparison.randomQueries(doublets, wordFile,
+         new Random(2210), queryCount);
+   
+      try (LadderQueryService service = new LadderQueryService(doublets)) {
+         System.out.println("Threads: " + (service.usesVirtualThreads() ? "virtual" : "platform pool")
+            + ", processors: " + Runtime.getRuntime().availableProcessors()
+            + ", queries in flight: " + inFlight);
+      
+         //Answering queries for a while first so the JIT has compiled the search.
+         run(service, queries.subList(0, Math.min(WARMUP_QUERIES, queries.size())), inFlight);
+         service.resetLatencies();
+      
+         long start = System.nanoTime();
+         run(service, queries, inFlight);
+         double seconds = (System.nanoTime() - start) / 1e9;
+      
+         System.out.printf("Queries: %d in %.2f s (%.0f queries/sec)%n",
+            service.getQueryCount(), seconds, queries.size() / seconds);
+         System.out.printf("Search    p50: %.1f us   p99: %.1f us%n",
+            service.getLatencyMicros(50), service.getLatencyMicros(99));
+         System.out.printf("Response  p50: %.1f us   p99: %.1f us%n",
+            service.getResponseLatencyMicros(50), service.getResponseLatencyMicros(99));
+      }
+   }
+
+   /**
+    * Submits the queries in order, never more than inFlight at a time, and
+    * waits for all of them to finish.
+    */
+   private static void run(LadderQueryService service, List<String[]> queries, int inFlight) {
+      Semaphore slots = new Semaphore(inFlight);
+      for (String[] query : queries) {
+         slots.acquireUninterruptibly();
+         service.submit(query[0], query[1]).whenComplete((ladder, failure) -> slots.release());
+      }
+      //Every slot is free again once the last query has finished.
+      slots.acquireUninterruptibly(inFlight);
+   }
+
+}
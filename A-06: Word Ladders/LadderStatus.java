@@ -0,0 +1,22 @@
+/**
+ * The result of checking a sequence of strings as a word ladder. Every
+ * sequence gets exactly one status: VALID, or the first problem found when
+ * reading it from start to end.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+public enum LadderStatus {
+
+   /** Every string is a word, and each differs from the next by one letter. */
+   VALID,
+
+   /** The sequence has no strings in it. */
+   EMPTY,
+
+   /** Some string in the sequence is not in the lexicon. */
+   NOT_A_WORD,
+
+   /** Some pair of neighboring words does not differ in exactly one letter. */
+   NOT_ONE_LETTER_APART
+
+}
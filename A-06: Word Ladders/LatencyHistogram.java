@@ -0,0 +1,94 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in nanoseconds into log-linear buckets so that percentiles
+ * can be read back without keeping every sample. Each power of two is split
+ * into SUB_BUCKETS equal buckets, which keeps every reported value within
+ * about 3% of the true one. Any number of threads may record at once.
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 5;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+   private final AtomicLongArray counts =
+      new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+   /**
+    * Counts one latency.
+    *
+    * @param  nanos  the latency in nanoseconds
+    */
+   void record(long nanos) {
+      counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+   }
+
+   /**
+    * Returns the number of latencies counted.
+    */
+   long count() {
+      long total = 0;
+      for (int i = 0; i < counts.length(); i++) {
+         total += counts.get(i);
+      }
+      return total;
+   }
+
+   /**
+    * Returns the latency at the given percentile, as the smallest value of the
+    * bucket it falls in, or 0 if nothing has been counted.
+    *
+    * @param  percentile  the percentile, from 0 to 100
+    * @return             the latency in nanoseconds
+    */
+   long percentile(double percentile) {
+      long total = count();
+      if (total == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+      long seen = 0;
+      for (int i = 0; i < counts.length(); i++) {
+         seen += counts.get(i);
+         if (seen >= rank) {
+            return lowestValueOf(i);
+         }
+      }
+      return lowestValueOf(counts.length() - 1);
+   }
+
+   /**
+    * Forgets every latency counted so far.
+    */
+   void clear() {
+      for (int i = 0; i < counts.length(); i++) {
+         counts.set(i, 0);
+      }
+   }
+
+   /**
+    * Returns the bucket of a latency. Values below SUB_BUCKETS get a bucket
+    * each; above that, each power of two gets SUB_BUCKETS buckets.
+    */
+   private static int bucketOf(long nanos) {
+      if (nanos < SUB_BUCKETS) {
+         return (int) nanos;
+      }
+      int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+      return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) - SUB_BUCKETS);
+   }
+
+   /**
+    * Returns the smallest latency that falls in the given bucket.
+    */
+   private static long lowestValueOf(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+         return bucket;
+      }
+      int shift = bucket / SUB_BUCKETS - 1;
+      return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+   }
+
+}
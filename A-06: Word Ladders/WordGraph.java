@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The one-letter-change graph of a lexicon in compressed sparse row form. Every
+ * word gets an int id, ordered by length and then alphabetically, so the words
+ * of each length form one contiguous block of ids and a ladder search never
+ * leaves its block. A word's id is found by binary search within its block,
+ * so no map from words to ids is kept. The neighbors of word id are
+ * edges[edgeStart[id]] up to edges[edgeStart[id + 1] - 1].
+ *
+ * @author Demarco Guajardo (dag0047@auburn.edu)
+ */
+class WordGraph {
+
+   /** Returned by id lookups for strings that are not words. */
+   static final int NONE = -1;
+
+   // Shared with the Doublets the graph was built from, never copied or changed.
+   private final String[] words;
+   // Ids of the words with length L run from lengthStart[L] to lengthStart[L + 1] - 1.
+   private final int[] lengthStart;
+   private final int[] edgeStart;
+   private final int[] edges;
+   // Search arrays not in use by any search, handed out by borrowScratch.
+   private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+   /**
+    * Builds the graph of the given words, which become its ids. Each bucket
+    * lists words that differ from each other at only one position, and
+    * together the buckets must connect every pair of words with a Hamming
+    * distance of one.
+    *
+    * @param lexicon  the words, all in lower case and ordered by length and
+    *                     then alphabetically, with no repeats; the graph keeps
+    *                     this array instead of copying it
+    * @param buckets  groups of words that are all neighbors of each other
+    */
+   WordGraph(String[] lexicon, Collection<List<String>> buckets) {
+      words = lexicon;
+
+      int longest = (words.length == 0) ? 0 : words[words.length - 1].length();
+      lengthStart = new int[longest + 2];
+      for (int id = 0; id < words.length; id++) {
+         lengthStart[words[id].length() + 1] = id + 1;
+      }
+      //Lengths with no words start where the previous length ended.
+      for (int length = 1; length < lengthStart.length; length++) {
+         lengthStart[length] = Math.max(lengthStart[length], lengthStart[length - 1]);
+      }
+
+      //Counting each word's neighbors, then filling the edges in a second pass.
+      int[] degree = new int[words.length + 1];
+      List<int[]> cliques = new ArrayList<>(buckets.size());
+      for (List<String> bucket : buckets) {
+         if (bucket.size() < 2) {
+            continue;
+         }
+         int[] clique = new int[bucket.size()];
+         for (int i = 0; i < clique.length; i++) {
+            clique[i] = idOf(bucket.get(i));
+            degree[clique[i]] += clique.length - 1;
+         }
+         cliques.add(clique);
+      }
+
+      edgeStart = new int[words.length + 1];
+      for (int id = 0; id < words.length; id++) {
+         edgeStart[id + 1] = edgeStart[id] + degree[id];
+      }
+      edges = new int[edgeStart[words.length]];
+      int[] next = Arrays.copyOf(edgeStart, words.length);
+      for (int[] clique : cliques) {
+         for (int from : clique) {
+            for (int to : clique) {
+               if (from != to) {
+                  edges[next[from]++] = to;
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the id of word, or NONE if it is not in the graph.
+    */
+   int idOf(String word) {
+      int length = word.length();
+      if (length + 1 >= lengthStart.length) {
+         return NONE;
+      }
+      int id = Arrays.binarySearch(words, lengthStart[length], lengthStart[length + 1], word);
+      return (id < 0) ? NONE : id;
+   }
+
+   /**
+    * Returns the word with the given id.
+    */
+   String wordOf(int id) {
+      return words[id];
+   }
+
+   /**
+    * Returns the words next to word id in the graph, in no particular order.
+    */
+   List<String> neighborsOf(int id) {
+      List<String> neighbors = new ArrayList<>(edgeStart[id + 1] - edgeStart[id]);
+      for (int e = edgeStart[id]; e < edgeStart[id + 1]; e++) {
+         neighbors.add(words[edges[e]]);
+      }
+      return neighbors;
+   }
+
+   /**
+    * Returns the first id of the words with the same length as word id.
+    */
+   int blockStart(int id) {
+      return lengthStart[words[id].length()];
+   }
+
+   /**
+    * Finds a minimum-length ladder between two word ids with a breadth-first
+    * search that keeps all of its state in the given scratch, so any number
+    * of threads can search the graph at once with a scratch each. Only the
+    * block of words with the same length is searched, so the scratch only
+    * needs to be as large as the largest block.
+    *
+    * @param  from     the id of the starting word
+    * @param  to       the id of the ending word
+    * @param  scratch  the search arrays to use, made for this graph
+    * @return          the ids of the ladder from start to end, or an empty
+    *                      array if there is none
+    */
+   int[] ladder(int from, int to, Scratch scratch) {
+      scratch.expanded = 0;
+      if (from == to) {
+         return new int[] {from};
+      }
+      if (words[from].length() != words[to].length()) {
+         return new int[0];
+      }
+
+      int base = blockStart(from);
+      int[] queue = scratch.queue;
+      int[] parent = scratch.parent;
+      int[] seen = scratch.seen;
+      int epoch = scratch.nextEpoch();
+
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = from;
+      seen[from - base] = epoch;
+
+      while (head < tail) {
+         int current = queue[head++];
+         scratch.expanded = head;
+         for (int e = edgeStart[current]; e < edgeStart[current + 1]; e++) {
+            int neighbor = edges[e];
+            if (seen[neighbor - base] != epoch) {
+               seen[neighbor - base] = epoch;
+               parent[neighbor - base] = current;
+               if (neighbor == to) {
+                  return path(parent, base, from, to);
+               }
+               queue[tail++] = neighbor;
+            }
+         }
+      }
+      return new int[0];
+   }
+
+   /**
+    * Returns search arrays that no other search is using, reusing ones given
+    * back by returnScratch when there are any.
+    */
+   Scratch borrowScratch() {
+      Scratch scratch = scratchPool.poll();
+      return (scratch != null) ? scratch : newScratch();
+   }
+
+   /**
+    * Gives back search arrays from borrowScratch once a search is done.
+    */
+   void returnScratch(Scratch scratch) {
+      scratchPool.offer(scratch);
+   }
+
+   /**
+    * Returns new search arrays sized for the largest block of this graph.
+    */
+   private Scratch newScratch() {
+      int largest = 0;
+      for (int length = 0; length + 1 < lengthStart.length; length++) {
+         largest = Math.max(largest, lengthStart[length + 1] - lengthStart[length]);
+      }
+      return new Scratch(largest);
+   }
+
+   /**
+    * Follows the parent links from to back to from and returns the ids in order
+    * from from to to.
+    */
+   private static int[] path(int[] parent, int base, int from, int to) {
+      int length = 1;
+      for (int id = to; id != from; id = parent[id - base]) {
+         length++;
+      }
+      int[] path = new int[length];
+      for (int id = to, i = length - 1; i >= 0; i--) {
+         path[i] = id;
+         if (id != from) {
+            id = parent[id - base];
+         }
+      }
+      return path;
+   }
+
+   /**
+    * The arrays one breadth-first search needs, kept between searches so they
+    * are only allocated once. A word has been seen by the current search when
+    * its entry in seen equals the current epoch, so starting a new search only
+    * bumps the epoch instead of clearing the array.
+    */
+   static final class Scratch {
+
+      final int[] queue;
+      final int[] parent;
+      final int[] seen;
+      int epoch;
+      int expanded; // words expanded by the most recent search.
+
+      Scratch(int size) {
+         queue = new int[size];
+         parent = new int[size];
+         seen = new int[size];
+      }
+
+      /**
+       * Starts a new search and returns its epoch, clearing seen only when the
+       * epochs wrap around.
+       */
+      int nextEpoch() {
+         if (++epoch == 0) {
+            Arrays.fill(seen, 0);
+            epoch = 1;
+         }
+         return epoch;
+      }
+
+   }
+
+}